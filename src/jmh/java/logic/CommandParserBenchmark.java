@@ -0,0 +1,55 @@
+package logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shared.Command;
+
+/**
+ * Measures parsing realistic commands, as done on every submitted command.
+ *
+ * @@author A0127046L
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommandParserBenchmark {
+
+    @Param({
+            "add marketing pitch for client XYZ",
+            "add new task starting today 5pm to next Monday 1800",
+            "add new task from 7th March's 0800 to Apr 27 2016",
+            "add \"dinner at 7pm with the team\" with high priority",
+            "edit task number 5 sales meeting from today until tomorrow",
+            "delete 1 to 5, 8",
+            "mark all",
+            "search for mtg notes",
+            "schedule 4 using 2h 30"
+    })
+    public String commandString;
+
+    private CommandParser _parser;
+
+    @Setup public void setUp() {
+        this._parser = CommandParser.getInstance();
+        this._parser.initialise();
+    }
+
+    @Benchmark public Command parse() {
+        return this._parser.parse(this.commandString);
+    }
+}
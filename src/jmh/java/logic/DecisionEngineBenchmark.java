@@ -0,0 +1,59 @@
+package logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shared.Command;
+import shared.ExecutionResult;
+import shared.TaskFixtures;
+import storage.Storage;
+
+/**
+ * Measures PowerSearch through DecisionEngine, which always works on the shared
+ * Storage instance. The Storage is filled in memory and never initialised, so
+ * nothing is read from or written to disk.
+ *
+ * @@author A0124772E
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DecisionEngineBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taskCount;
+
+    @Param({ "mtg", "client review", "zzz" })
+    public String searchQuery;
+
+    private DecisionEngine _engine;
+    private Command _searchCommand;
+
+    @Setup public void setUp() {
+        Storage storage = Storage.getInstance();
+        storage.removeAll();
+        storage.readFromDisk(TaskFixtures.encode(TaskFixtures.generate(this.taskCount)));
+
+        this._engine = DecisionEngine.getInstance();
+        this._searchCommand = new Command(Command.Instruction.SEARCH);
+        this._searchCommand.setParameter(Command.ParamName.SEARCH_QUERY, this.searchQuery);
+    }
+
+    @Benchmark public ExecutionResult handleSearch() {
+        return this._engine.handleSearch(this._searchCommand);
+    }
+}
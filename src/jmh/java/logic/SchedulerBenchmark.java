@@ -0,0 +1,65 @@
+package logic;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shared.CustomTime;
+import shared.TaskFixtures;
+import shared.TemporalRange;
+import storage.Storage;
+
+/**
+ * Measures finding a free slot for a new task, and the free slot search over
+ * the coming month that it is built on.
+ *
+ * @@author A0124772E
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taskCount;
+
+    @Param({ "60", "480" })
+    public int durationInMinutes;
+
+    private Scheduler _scheduler;
+    private CustomTime _monthStart;
+    private CustomTime _monthEnd;
+
+    @Setup public void setUp() {
+        // dependency injection of a Storage that never touches disk
+        Storage storage = new Storage() {};
+        storage.readFromDisk(TaskFixtures.encode(TaskFixtures.generate(this.taskCount)));
+        this._scheduler = new Scheduler(storage);
+        this._monthStart = new CustomTime(LocalDate.now(), LocalTime.of(0, 0));
+        this._monthEnd = new CustomTime(LocalDate.now().plusDays(30), LocalTime.of(0, 0));
+    }
+
+    @Benchmark public TemporalRange schedule() {
+        return this._scheduler.schedule(this.durationInMinutes);
+    }
+
+    @Benchmark public List<TemporalRange> getFreeSlots() {
+        return this._scheduler.getFreeSlots(this._monthStart, this._monthEnd);
+    }
+}
@@ -0,0 +1,71 @@
+package shared;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures encoding Tasks to, and decoding them from, the lines of the data file
+ * and the binary snapshot format.
+ *
+ * @@author A0127357B
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskCodecBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taskCount;
+
+    private List<Task> _tasks;
+    private List<String> _taskStrings;
+    private ByteBuffer _snapshot;
+
+    @Setup public void setUp() {
+        this._tasks = TaskFixtures.generate(this.taskCount);
+        this._taskStrings = TaskFixtures.encode(this._tasks);
+        this._snapshot = TaskSnapshotCodec.encode(this._tasks);
+    }
+
+    @Benchmark public List<String> encodeTaskToString() {
+        List<String> taskStrings = new ArrayList<>(this._tasks.size());
+        for (Task task : this._tasks) {
+            taskStrings.add(task.encodeTaskToString());
+        }
+        return taskStrings;
+    }
+
+    @Benchmark public List<Task> decodeTaskFromString() {
+        List<Task> tasks = new ArrayList<>(this._taskStrings.size());
+        for (String taskString : this._taskStrings) {
+            tasks.add(Task.decodeTaskFromString(taskString));
+        }
+        return tasks;
+    }
+
+    @Benchmark public ByteBuffer encodeSnapshot() {
+        return TaskSnapshotCodec.encode(this._tasks);
+    }
+
+    @Benchmark public List<Task> decodeSnapshot() throws IOException {
+        return TaskSnapshotCodec.decode(this._snapshot.duplicate());
+    }
+}
@@ -0,0 +1,75 @@
+package shared;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible sets of Tasks for the benchmarks.
+ *
+ * The mix roughly follows real usage: most Tasks are timed events of up to a few
+ * hours spread over the coming year, some only have a deadline, some are untimed,
+ * and a fraction of them are already completed.
+ *
+ * @@author A0127357B
+ */
+public class TaskFixtures {
+
+    /**
+     * Constants
+     */
+    private static final long SEED = 2103L;
+    private static final int DAYS_SPREAD = 365;
+    private static final String[] WORDS = {
+            "meeting", "report", "review", "lunch", "call", "client", "project", "submit",
+            "marketing", "pitch", "sales", "budget", "team", "assignment", "lecture", "tutorial",
+            "dentist", "gym", "groceries", "invoice", "draft", "presentation", "deadline", "sync"
+    };
+
+    /**
+     * Returns the given number of Tasks, numbered from 1, starting from today.
+     */
+    public static List<Task> generate(int taskCount) {
+        Random random = new Random(SEED);
+        LocalDate today = LocalDate.now();
+        List<Task> tasks = new ArrayList<>(taskCount);
+
+        for (int id = 1; id <= taskCount; id++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + id;
+            CustomTime start = null;
+            CustomTime end = null;
+
+            int kind = random.nextInt(10);
+            CustomTime time = new CustomTime(today.plusDays(random.nextInt(DAYS_SPREAD)),
+                    LocalTime.of(8 + random.nextInt(12), 15 * random.nextInt(4)));
+            if (kind < 6) {
+                // Event
+                start = time;
+                end = time.plusMinutes(30 + 30 * random.nextInt(6));
+            } else if (kind < 9) {
+                // Deadline
+                end = time;
+            }
+
+            Task task = new Task(id, name, "", start, end);
+            task.setPriority(Task.Priority.values()[random.nextInt(Task.Priority.values().length)]);
+            task.setCompleted(random.nextInt(5) == 0);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the given Tasks encoded the way they are written to the data file.
+     */
+    public static List<String> encode(List<Task> tasks) {
+        List<String> taskStrings = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskStrings.add(task.encodeTaskToString());
+        }
+        return taskStrings;
+    }
+}
@@ -0,0 +1,65 @@
+package storage;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shared.CustomTime;
+import shared.Task;
+import shared.TaskFixtures;
+
+/**
+ * Measures the read paths of Storage, using an instance that never touches disk.
+ *
+ * @@author A0127357B
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taskCount;
+
+    private Storage _storage;
+    private CustomTime _weekStart;
+    private CustomTime _weekEnd;
+
+    @Setup public void setUp() {
+        this._storage = new Storage();
+        this._storage.readFromDisk(TaskFixtures.encode(TaskFixtures.generate(this.taskCount)));
+
+        // A week in the middle of the generated tasks
+        LocalDate weekStartDate = LocalDate.now().plusDays(180);
+        this._weekStart = new CustomTime(weekStartDate, LocalTime.NOON);
+        this._weekEnd = new CustomTime(weekStartDate.plusDays(7), LocalTime.NOON);
+    }
+
+    @Benchmark public List<Task> getAll() {
+        return this._storage.getAll();
+    }
+
+    @Benchmark public List<Task> searchByDate() {
+        return this._storage.searchByDate(this._weekStart, this._weekEnd);
+    }
+
+    @Benchmark public boolean hasOverlapping() {
+        return this._storage.hasOverlapping(this._weekStart, this._weekEnd);
+    }
+}
@@ -0,0 +1,49 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shared.Task;
+import shared.TaskFixtures;
+
+/**
+ * Measures sorting Tasks into display order, as done for every displayed list.
+ *
+ * @@author A0127357B
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskPriorityComparatorBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taskCount;
+
+    private List<Task> _tasks;
+
+    @Setup public void setUp() {
+        this._tasks = TaskFixtures.generate(this.taskCount);
+    }
+
+    @Benchmark public List<Task> sort() {
+        List<Task> tasks = new ArrayList<>(this._tasks);
+        tasks.sort(TaskPriorityComparator.getInstance());
+        return tasks;
+    }
+}
@@ -0,0 +1,201 @@
+package launcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import exception.ExceptionHandler;
+import logic.CommandParser;
+import logic.DecisionEngine;
+import logic.VisualIndexMapper;
+import shared.Command;
+import shared.ExecutionResult;
+import shared.Message;
+import shared.ViewType;
+import skeleton.CommandParserSpec;
+import skeleton.DecisionEngineSpec;
+
+/**
+ * Runs commands read from a file, or from standard input, without starting the
+ * user interface. Each line is parsed and executed exactly as if it had been
+ * typed into the command box, so task indices refer to the task list produced
+ * by the previous command. Blank lines and lines starting with '#' are skipped.
+ *
+ * The result of each command and the time it took are printed, followed by a
+ * summary of the throughput. This is meant for scripted bulk loads and for
+ * measuring throughput on machines without a display.
+ *
+ * Usage: <code>Launcher --headless [--quiet] [file]</code>
+ *
+ * @@author A0127046L
+ */
+public class HeadlessLauncher {
+
+    /**
+     * Constants
+     */
+    public static final String FLAG_HEADLESS = "--headless";
+    private static final String FLAG_QUIET = "--quiet";
+    private static final String PREFIX_COMMENT = "#";
+    private static final String FORMAT_RESULT = "%d: %s (%s, %.3f ms)";
+    private static final String FORMAT_ERROR = "%d: %s (%s)";
+    private static final String FORMAT_SUMMARY = "Ran %d commands, %d with errors or warnings, in %.1f ms (%.0f commands/s)";
+    private static final String FORMAT_TASK_COUNT = "%d tasks";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Properties
+     */
+    private final BufferedReader _input;
+    private final PrintStream _output;
+    private final boolean _isQuiet;
+    private int _commandCount;
+    private int _failedCount;
+
+    public HeadlessLauncher(BufferedReader input, PrintStream output, boolean isQuiet) {
+        this._input = input;
+        this._output = output;
+        this._isQuiet = isQuiet;
+        this._commandCount = 0;
+        this._failedCount = 0;
+    }
+
+    public static void main(String[] args) {
+        boolean isQuiet = false;
+        String fileName = null;
+        for (String arg : args) {
+            if (arg.equals(FLAG_QUIET)) {
+                isQuiet = true;
+            } else if (!arg.equals(FLAG_HEADLESS)) {
+                fileName = arg;
+            }
+        }
+
+        try (BufferedReader input = fileName == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            new HeadlessLauncher(input, System.out, isQuiet).run();
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Initialises the logic and storage, runs every command until the end of
+     * the input or an exit command, and then shuts them down, saving the tasks.
+     *
+     * @throws IOException
+     *             if the input cannot be read
+     */
+    public void run() throws IOException {
+        DecisionEngineSpec decisionEngine = this.getDecisionEngine();
+        CommandParserSpec commandParser = this.getCommandParser();
+        decisionEngine.initialise();
+        commandParser.initialise();
+
+        try {
+            // Produce the initial task list, which the indices of the first command refer to
+            this.remember(decisionEngine.performCommand(Command.initialCommand()));
+
+            long startTime = System.nanoTime();
+            String line;
+            while ((line = this._input.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(PREFIX_COMMENT)) {
+                    continue;
+                }
+                if (!this.runCommand(line)) {
+                    break;
+                }
+            }
+            long elapsedTime = System.nanoTime() - startTime;
+
+            double elapsedMillis = elapsedTime / NANOS_PER_MILLI;
+            this._output.println(String.format(FORMAT_SUMMARY, this._commandCount, this._failedCount,
+                    elapsedMillis, elapsedMillis == 0 ? 0.0 : this._commandCount * 1000 / elapsedMillis));
+        } finally {
+            decisionEngine.shutdown();
+        }
+    }
+
+    /**
+     * Parses and executes a single command line.
+     *
+     * @return false if the command asks the application to exit
+     */
+    private boolean runCommand(String commandString) {
+        this._commandCount++;
+        long startTime = System.nanoTime();
+
+        Command command = this.getCommandParser().parse(commandString);
+        if (command.getInstruction() == Command.Instruction.INVALID
+                || command.getInstruction() == Command.Instruction.UNRECOGNISED) {
+            this._failedCount++;
+            String message = command.getInstruction() == Command.Instruction.INVALID
+                    ? command.getInvalidationMessage()
+                    : Message.UNRECOGNISED.toString();
+            this._output.println(String.format(FORMAT_ERROR, this._commandCount, commandString, message));
+            return true;
+        }
+
+        ExecutionResult result;
+        try {
+            if (command.hasParameter(Command.ParamName.TASK_INDEX)
+                    || command.hasParameter(Command.ParamName.TASK_INDEX_RANGES)) {
+                VisualIndexMapper.getInstance().translateVisualToRaw(command);
+            }
+            result = this.getDecisionEngine().performCommand(command);
+        } catch (RuntimeException e) {
+            // A bad line, such as one with an index out of range, should not stop the rest of the script
+            this._failedCount++;
+            this._output.println(String.format(FORMAT_ERROR, this._commandCount, commandString, e));
+            return true;
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        if (result.isShutdownSignal()) {
+            return false;
+        }
+        this.remember(result);
+
+        if (result.hasErrorMessage()) {
+            this._failedCount++;
+            this._output.println(String.format(FORMAT_ERROR, this._commandCount, commandString,
+                    result.getErrorMessage()));
+        } else if (!this._isQuiet) {
+            this._output.println(String.format(FORMAT_RESULT, this._commandCount, commandString,
+                    describe(result), elapsedTime / NANOS_PER_MILLI));
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the task list of the result, so that the indices of the next
+     * command refer to it, as they would in the user interface.
+     */
+    private void remember(ExecutionResult result) {
+        if (result.getViewType() == ViewType.TASK_LIST) {
+            VisualIndexMapper.getInstance().setItemsList(result.getData());
+        }
+    }
+
+    private static String describe(ExecutionResult result) {
+        if (result.getViewType() == ViewType.TASK_LIST) {
+            return String.format(FORMAT_TASK_COUNT, result.<List<?>>getData().size());
+        }
+        return String.valueOf(result.getViewType());
+    }
+
+    protected DecisionEngineSpec getDecisionEngine() {
+        return DecisionEngine.getInstance();
+    }
+
+    private CommandParserSpec getCommandParser() {
+        return CommandParser.getInstance();
+    }
+}
@@ -12,6 +12,11 @@ import skeleton.DispatcherSpec;
 public class Launcher extends Application {
 
     public static void main(String[] args) {
+        // Run commands without starting the user interface
+        if (args.length > 0 && args[0].equals(HeadlessLauncher.FLAG_HEADLESS)) {
+            HeadlessLauncher.main(args);
+            return;
+        }
         launch(args);
     }
 
@@ -27,4 +32,13 @@ public class Launcher extends Application {
         dispatcher.initialise();
         dispatcher.start();
     }
+
+    /**
+     * Shuts down the full stack when the application exits, including when the window is closed rather than exited
+     * with a command, so that the data is saved and the threads started by the stack do not keep the JVM running.
+     * @throws Exception
+     */
+    @Override public void stop() throws Exception {
+        Dispatcher.getInstance().shutdown();
+    }
 }
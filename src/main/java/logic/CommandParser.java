@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @@author A0127046L
@@ -46,6 +47,8 @@ public class CommandParser implements CommandParserSpec {
     private static final String STRING_INVALID_RANGE_FORMAT = "Invalid range";
     private static final String STRING_INVALID_SCHEDULE_ID_MISSING = "You must tell me which task to schedule";
     public static final String STRING_INVALID_DURATION_MISSING = "You must tell me how long you want your task to last!";
+    private static final String STRING_INVALID_IMPORT_FILE_MISSING = "You must tell me which file to import";
+    private static final String STRING_INVALID_EXPORT_FILE_MISSING = "You must tell me which file to export to";
 
     /**
      * Singleton implementation
@@ -59,10 +62,10 @@ public class CommandParser implements CommandParserSpec {
      * Properties
      */
     private ParserDefinitions _definitions;
-    private String _instructionPattern;
-    private String _startTimePattern;
-    private String _endTimePattern;
-    private String _priorityPattern;
+    private Pattern _instructionPattern;
+    private Pattern _startTimePattern;
+    private Pattern _endTimePattern;
+    private Pattern _priorityPattern;
 
     private CommandParser() {
 
@@ -101,17 +104,18 @@ public class CommandParser implements CommandParserSpec {
 
     private void constructInstructionRegExp() {
         assert this._definitions != null && this._definitions.getInstructionKeywords() != null;
-        this._instructionPattern = RegexUtils.startOfString(RegexUtils.wordBoundary(RegexUtils.namedChoice(
-                MATCHER_GROUP_INSTRUCTION,
-                this._definitions.getInstructionKeywords()
-        )));
+        this._instructionPattern = RegexUtils.caseInsensitive(RegexUtils.startOfString(RegexUtils.wordBoundary(
+                RegexUtils.namedChoice(
+                        MATCHER_GROUP_INSTRUCTION,
+                        this._definitions.getInstructionKeywords()
+                ))));
     }
 
     private void constructTimeRegExp() {
-        this._startTimePattern = constructTimeRegexUsing(prep ->
-                prep.getMeaning() != TimePreposition.Meaning.ENDING, false);
-        this._endTimePattern = constructTimeRegexUsing(prep ->
-                prep.getMeaning() != TimePreposition.Meaning.STARTING, true);
+        this._startTimePattern = RegexUtils.caseInsensitive(constructTimeRegexUsing(prep ->
+                prep.getMeaning() != TimePreposition.Meaning.ENDING, false));
+        this._endTimePattern = RegexUtils.caseInsensitive(constructTimeRegexUsing(prep ->
+                prep.getMeaning() != TimePreposition.Meaning.STARTING, true));
     }
 
     private String constructTimeRegexUsing(Predicate<? super TimePreposition> selectPredicate,
@@ -220,20 +224,18 @@ public class CommandParser implements CommandParserSpec {
                 .flatMap(Set::stream)
                 .toArray(String[]::new);
 
-        this._priorityPattern = RegexUtils.word(
+        this._priorityPattern = RegexUtils.caseInsensitive(RegexUtils.word(
                 RegexUtils.choice(this._definitions.getPriorityPrepositionKeywords())
         ).concat(RegexUtils.namedChoice(
                 MATCHER_GROUP_PRIORITY,
                 priorityKeywords
-        ));
+        )));
     }
 
     @Override
     public Command parse(String commandString) {
         // Construct the instruction first from the command string
-        Matcher instructionMatcher = RegexUtils.caseInsensitiveMatch(
-                this._instructionPattern,
-                commandString);
+        Matcher instructionMatcher = this._instructionPattern.matcher(commandString);
 
         // Cannot find instruction, return unrecognised
         if (!instructionMatcher.find()) {
@@ -266,6 +268,14 @@ public class CommandParser implements CommandParserSpec {
             case SCHEDULE:
                 command = this.parseScheduleCommand(command, partialCommand);
                 break;
+            case IMPORT:
+                command = this.parseFileCommand(command, partialCommand, "from",
+                        STRING_INVALID_IMPORT_FILE_MISSING);
+                break;
+            case EXPORT:
+                command = this.parseFileCommand(command, partialCommand, "to",
+                        STRING_INVALID_EXPORT_FILE_MISSING);
+                break;
         }
 
         return command;
@@ -500,6 +510,34 @@ public class CommandParser implements CommandParserSpec {
         return command;
     }
 
+    /**
+     * Parses the file path of an <code>IMPORT</code> or <code>EXPORT</code>
+     * command, after an optional filler word.
+     */
+    private Command parseFileCommand(Command command, String partialCommand, String filler,
+                                     String invalidationMessage) {
+        Matcher fillerMatcher = RegexUtils.caseInsensitiveMatch(
+                RegexUtils.optionalWord(RegexUtils.noSurroundingQuotes(filler)),
+                partialCommand
+        );
+        // Truncate up to filler
+        if (fillerMatcher.find()) {
+            partialCommand = partialCommand.substring(fillerMatcher.end()).trim();
+        }
+        // Paths with spaces may be quoted
+        String filePath = partialCommand;
+        if (StringUtils.isSurroundedByQuotes(filePath)) {
+            filePath = StringUtils.stripEndCharacters(filePath);
+        }
+
+        if (filePath.trim().isEmpty()) {
+            return Command.invalidCommand(invalidationMessage);
+        }
+
+        command.setParameter(Command.ParamName.FILE_PATH, filePath);
+        return command;
+    }
+
 
     /**
      * TODO: Write JavaDoc
@@ -519,10 +557,7 @@ public class CommandParser implements CommandParserSpec {
         CustomTime endTime = null;
 
         // Match start time
-        Matcher startTimeMatcher = RegexUtils.caseInsensitiveMatch(
-                this._startTimePattern,
-                partialCommand
-        );
+        Matcher startTimeMatcher = this._startTimePattern.matcher(partialCommand);
         if (startTimeMatcher.find()) {
             startTime = new CustomTime(
                     this.parseDate(startTimeMatcher),
@@ -539,10 +574,7 @@ public class CommandParser implements CommandParserSpec {
         }
 
         // Match end time
-        Matcher endTimeMatcher = RegexUtils.caseInsensitiveMatch(
-                this._endTimePattern,
-                partialCommand
-        );
+        Matcher endTimeMatcher = this._endTimePattern.matcher(partialCommand);
         if (endTimeMatcher.find(highestFoundIndex)) {
             endTime = new CustomTime(
                     this.parseDate(endTimeMatcher),
@@ -566,10 +598,7 @@ public class CommandParser implements CommandParserSpec {
     }
 
     private int parsePriorityParameters(Command command, String partialCommand) {
-        Matcher matcher = RegexUtils.caseInsensitiveMatch(
-                this._priorityPattern,
-                partialCommand
-        );
+        Matcher matcher = this._priorityPattern.matcher(partialCommand);
         // If cannot find, return lowest found to be string length
         if (!matcher.find()) {
             return partialCommand.length();
@@ -778,22 +807,22 @@ public class CommandParser implements CommandParserSpec {
 
     //-------------------------------------------------------------------------------------------------
     //
-    // GETTERS for constructed regexp
+    // GETTERS for constructed regexp, compiled once in initialise()
     //
     //-------------------------------------------------------------------------------------------------
-    public String getInstructionPattern() {
+    public Pattern getInstructionPattern() {
         return this._instructionPattern;
     }
 
-    public String getStartTimePattern() {
+    public Pattern getStartTimePattern() {
         return this._startTimePattern;
     }
 
-    public String getEndTimePattern() {
+    public Pattern getEndTimePattern() {
         return this._endTimePattern;
     }
 
-    public String getPriorityPattern() {
+    public Pattern getPriorityPattern() {
         return this._priorityPattern;
     }
 }
@@ -1,8 +1,11 @@
 package logic;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -15,7 +18,8 @@ import skeleton.SchedulerSpec;
 import skeleton.StorageSpec;
 import skeleton.WriteHistorySpec;
 import storage.Storage;
-import storage.TaskPriorityComparator;
+import storage.TaskExporter;
+import storage.TaskImporter;
 
 /**
  * @@author A0124772E
@@ -30,9 +34,13 @@ public class DecisionEngine implements DecisionEngineSpec {
         }
         return instance;
     }
-    private DecisionEngine() {
+    // the singleton constructor is made protected instead of private to enable dependency injection in tests
+    protected DecisionEngine() {
     }
 
+    // the task list of the last result, which the change of the next result is computed against
+    private List<Task> _lastTaskList;
+
 
     /**
      * the most important method in this class
@@ -72,6 +80,12 @@ public class DecisionEngine implements DecisionEngineSpec {
             case SCHEDULE:
                 result = this.handleSchedule(command);
                 break;
+            case IMPORT:
+                result = this.handleImport(command);
+                break;
+            case EXPORT:
+                result = this.handleExport(command);
+                break;
             case UNDO:
                 boolean undoActuallyHappened = this.getWriteHistory().undo();
                 result = this.displayAllTasks();
@@ -92,6 +106,38 @@ public class DecisionEngine implements DecisionEngineSpec {
                 assert false;
         }
 
+        this.recordChange(result);
+        return result;
+    }
+
+
+    /**
+     * executes a batch of write commands, such as those of an import or a script, as a single operation
+     * the whole batch is undone/redone at once, storage saves its changes once at the end of the batch,
+     * and the list of all tasks is only built once, after the last command
+     * @param commands ADD/DELETE/EDIT/MARK commands, executed in order
+     * @return
+     */
+    @Override public ExecutionResult performBatch(List<Command> commands) {
+        assert commands.stream().allMatch(DecisionEngine::isWriteCommand);
+
+        StorageSpec<Task> storage = this.getStorage();
+        StorageWriteOperation op = new StorageWriteOperation(commands, storage);
+
+        String errorMsg;
+        storage.beginBatch();
+        try {
+            errorMsg = this.getWriteHistory().addToHistoryAfterExecuting(op);
+        } finally {
+            storage.endBatch();
+        }
+
+        storage.compactTombstones(this.getWriteHistory()::getReferencedTaskIds);
+
+        ExecutionResult result = this.displayAllTasks();
+        result.setErrorMessage(errorMsg);
+
+        this.recordChange(result);
         return result;
     }
 
@@ -111,21 +157,21 @@ public class DecisionEngine implements DecisionEngineSpec {
     ///////////////////////////////
 
     /**
-     * handles any one of ADD/DELETE/EDIT/MARK commands
+     * handles any one of ADD/DELETE/EDIT/MARK/IMPORT commands
      * essentially handles any commands that involve changing the state of one or more tasks in the Storage handler
      * another way to look at this method is that it handles any undo-able commands
      * @param command
      * @return
      */
     protected ExecutionResult handleWriteOperation(Command command) {
-        assert command.hasInstruction(Command.Instruction.ADD)
-                || command.hasInstruction(Command.Instruction.DELETE)
-                || command.hasInstruction(Command.Instruction.EDIT)
-                || command.hasInstruction(Command.Instruction.MARK);
+        assert isWriteCommand(command) || command.hasInstruction(Command.Instruction.IMPORT);
 
         StorageWriteOperation op = new StorageWriteOperation(command, this.getStorage());
         String errorMsg = this.getWriteHistory().addToHistoryAfterExecuting(op);
 
+        // deleted tasks that undo/redo can no longer reach are evicted from time to time
+        this.getStorage().compactTombstones(this.getWriteHistory()::getReferencedTaskIds);
+
         ExecutionResult result = this.displayAllTasks();
         result.setErrorMessage(errorMsg);
 
@@ -141,7 +187,8 @@ public class DecisionEngine implements DecisionEngineSpec {
     protected ExecutionResult handleDisplay(Command command) {
         assert command.hasInstruction(Command.Instruction.DISPLAY);
 
-        List<Task> listToDisplay = this.getStorage().getAll();
+        // the list is already sorted by storage, and filtering it preserves the order
+        List<Task> listToDisplay = this.getStorage().getAllInDisplayOrder();
 
         // for each command parameter, filter the list of tasks
         if (command.hasParameter(Command.ParamName.TASK_NAME)) {
@@ -162,8 +209,6 @@ public class DecisionEngine implements DecisionEngineSpec {
                     .collect(Collectors.toList());
         }
 
-        Collections.sort(listToDisplay, TaskPriorityComparator.getInstance());
-
         // at this point, we have a properly filtered list
         return new ExecutionResult(ViewType.TASK_LIST, listToDisplay);
     }
@@ -182,24 +227,24 @@ public class DecisionEngine implements DecisionEngineSpec {
         Pattern pattern = buildPowerSearchPattern(command);
         double averageQueryLength = getAverageQueryLength(command);
 
-        List<Task> foundTask = this.getStorage().getAll().stream().map(item -> {
+        // Only score the tasks that the name index in storage cannot rule out
+        List<Task> candidates = this.getStorage().getSearchCandidates(getQueryWords(command));
+
+        List<Task> foundTask = candidates.stream().map(item -> {
             // Match with task name first
             Matcher m = pattern.matcher(item.getTaskName());
-            int matches = 0;
-            List<Double> similarityIndex = new ArrayList<>();
+            double totalSimilarity = 0.0;
 
             while (m.find()) {
-                matches++;
                 double similarity = averageQueryLength / m.group("MATCH").length();
                 if (similarity > 1.0) {
                     similarity = 1.0;
                 }
-                similarityIndex.add(similarity);
+                totalSimilarity += similarity;
             }
 
-            double weightedMatch = matches
-                    * similarityIndex.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            return new Pair<>(weightedMatch, item);
+            // the number of matches weighted by their average similarity is their total similarity
+            return new Pair<>(totalSimilarity, item);
         }).filter(pair -> pair.getKey() > THRESHOLD_POWERSEARCH_WEIGHTED)
                 .sorted((pair1, pair2) -> pair2.getKey().compareTo(pair1.getKey())).map(Pair::getValue)
                 .collect(Collectors.toList());
@@ -233,6 +278,59 @@ public class DecisionEngine implements DecisionEngineSpec {
         return this.handleWriteOperation(editCommand);
     }
 
+    /**
+     * handles the IMPORT command
+     * the whole file is read before any task is added, and is then added as a single undo-able operation
+     * @param command
+     * @return
+     */
+    protected ExecutionResult handleImport(Command command) {
+        assert command.hasInstruction(Command.Instruction.IMPORT);
+
+        assert command.hasParameter(Command.ParamName.FILE_PATH);
+        String filePath = command.getParameter(Command.ParamName.FILE_PATH);
+
+        List<Task> tasksToImport;
+        try {
+            tasksToImport = TaskImporter.read(Paths.get(filePath));
+        } catch (IOException | InvalidPathException e) {
+            // nothing was imported, so there is nothing to undo
+            ExecutionResult result = this.displayAllTasks();
+            result.setErrorMessage(String.format(Message.IMPORT_FAIL.toString(), e.getMessage()));
+            return result;
+        }
+
+        // hand the tasks over to the usual write operation
+        command.setParameter(Command.ParamName.IMPORTED_TASKS, tasksToImport);
+        return this.handleWriteOperation(command);
+    }
+
+    /**
+     * handles the EXPORT command, in the format given by the extension of the file
+     * tasks are streamed out of storage one by one, so no list of all tasks is built
+     * @param command
+     * @return
+     */
+    protected ExecutionResult handleExport(Command command) {
+        assert command.hasInstruction(Command.Instruction.EXPORT);
+
+        assert command.hasParameter(Command.ParamName.FILE_PATH);
+        String filePath = command.getParameter(Command.ParamName.FILE_PATH);
+
+        String errorMsg = null;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            TaskExporter.write(this.getStorage().iterateAll(), TaskExporter.Format.ofFileName(filePath), channel);
+        } catch (IOException | InvalidPathException e) {
+            errorMsg = String.format(Message.EXPORT_FAIL.toString(), e.getMessage());
+        }
+
+        // exporting changes nothing, so the task list stays as it is
+        ExecutionResult result = this.displayAllTasks();
+        result.setErrorMessage(errorMsg);
+        return result;
+    }
+
     /////////////////////////////
     // END OF COMMAND HANDLERS //
     /////////////////////////////
@@ -242,22 +340,39 @@ public class DecisionEngine implements DecisionEngineSpec {
      * @return
      */
     protected ExecutionResult displayAllTasks() {
-        List<Task> listToDisplay = this.getStorage().getAll().stream()
-                .sorted(TaskPriorityComparator.getInstance()).collect(Collectors.toList());
+        List<Task> listToDisplay = this.getStorage().getAllInDisplayOrder();
 
         return new ExecutionResult(ViewType.TASK_LIST, listToDisplay);
     }
 
 
+    /**
+     * attaches to a task list result how it differs from the previous one, so that the UI only has to patch the rows
+     * that changed
+     * the first result has no change, as there is nothing to compare it to
+     * @param result
+     */
+    private void recordChange(ExecutionResult result) {
+        if (result.getViewType() != ViewType.TASK_LIST) {
+            return;
+        }
+
+        List<Task> taskList = result.getData();
+        if (this._lastTaskList != null) {
+            result.setChange(TaskListChange.between(this._lastTaskList, taskList));
+        }
+        this._lastTaskList = taskList;
+    }
+
     private SchedulerSpec getTaskScheduler() {
         return Scheduler.getInstance();
     }
 
-    private StorageSpec<Task> getStorage() {
+    protected StorageSpec<Task> getStorage() {
         return Storage.getInstance();
     }
 
-    private WriteHistorySpec getWriteHistory() {
+    protected WriteHistorySpec getWriteHistory() {
         return WriteHistory.getInstance();
     }
 
@@ -266,10 +381,16 @@ public class DecisionEngine implements DecisionEngineSpec {
 
     private static final double THRESHOLD_POWERSEARCH_WEIGHTED = 0.0;
 
+    private static boolean isWriteCommand(Command command) {
+        return command.hasInstruction(Command.Instruction.ADD)
+                || command.hasInstruction(Command.Instruction.DELETE)
+                || command.hasInstruction(Command.Instruction.EDIT)
+                || command.hasInstruction(Command.Instruction.MARK);
+    }
+
     private static Pattern buildPowerSearchPattern(Command command) {
-        String query = command.getParameter(Command.ParamName.SEARCH_QUERY);
         // Split the query into words
-        String[] words = query.split("\\s+");
+        String[] words = getQueryWords(command);
 
         // Begin building pattern by signalling that we are looking for
         // a word that contains the characters
@@ -298,7 +419,11 @@ public class DecisionEngine implements DecisionEngineSpec {
     }
 
     private static double getAverageQueryLength(Command command) {
+        return Arrays.asList(getQueryWords(command)).stream().mapToDouble(String::length).average().orElse(0.0);
+    }
+
+    private static String[] getQueryWords(Command command) {
         String query = command.getParameter(Command.ParamName.SEARCH_QUERY);
-        return Arrays.asList(query.split("\\s+")).stream().mapToDouble(String::length).average().orElse(0.0);
+        return query.split("\\s+");
     }
 }
@@ -5,13 +5,23 @@ import skeleton.DecisionEngineSpec;
 import skeleton.DispatcherSpec;
 import skeleton.TranslationEngineSpec;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import exception.ExceptionHandler;
+import javafx.application.Platform;
+
 /**
  * @@author A0124772E
  */
 public class Dispatcher implements DispatcherSpec {
 
+    // name of the thread that all commands are executed on
+    private static final String NAME_COMMAND_THREAD = "command-executor";
+
     /**
      * Singleton instance
      */
@@ -20,37 +30,108 @@ public class Dispatcher implements DispatcherSpec {
     /**
      * Properties
      */
-    private final Function<Command, ExecutionResult> _commandExecutor;
+    private final Function<Command, Future<ExecutionResult>> _commandExecutor;
+
+    // commands are executed one at a time, in the order they were entered, on a thread of their own
+    // this keeps the window responsive during slow commands, and as no other thread calls the DecisionEngine,
+    // Storage only ever has a single writer
+    private final ExecutorService _commandThread;
+
+    // only read and written on the JavaFX application thread
+    private int _pendingCommandCount;
+
+    // set on the command thread once an exit command has been executed, so that commands queued after it are dropped
+    private volatile boolean _isShuttingDown;
+
+    // set on the JavaFX application thread by the first call to shutdown, which may come from the exit command or
+    // from the window being closed
+    private boolean _isShutDown;
 
     /**
-     * TODO: Write JavaDoc
+     * the executor is called on the JavaFX application thread, and returns as soon as the command is queued
+     * the result is displayed back on the JavaFX application thread, and the busy indicator is shown until the
+     * results of all queued commands have been displayed
      */
     private Dispatcher() {
-        this._commandExecutor = command -> {
-            ExecutionResult result = getDecisionEngine().performCommand(command);
+        this._commandThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, NAME_COMMAND_THREAD);
+            // not a daemon, so that a save started by the exit command is allowed to finish
+            thread.setDaemon(false);
+            return thread;
+        });
+
+        // the command is passed along with its result, as later commands may have been entered by the time it is shown
+        this._commandExecutor = command -> this.submit(command,
+                result -> getTranslationEngine().displayResult(result, command));
+    }
+
+    // called on the JavaFX application thread
+    private Future<ExecutionResult> submit(Command command, Consumer<ExecutionResult> resultDisplayer) {
+        this._pendingCommandCount++;
+        this.getTranslationEngine().getUserInterface().setBusy(true);
+
+        return this._commandThread.submit(() -> {
+            if (this._isShuttingDown) {
+                // the command is dropped, but still has to stop counting as pending
+                Platform.runLater(this::finishCommand);
+                return null;
+            }
+
+            ExecutionResult result;
+            try {
+                result = getDecisionEngine().performCommand(command);
+            } catch (RuntimeException e) {
+                ExceptionHandler.handle(e);
+                Platform.runLater(this::finishCommand);
+                throw e;
+            }
             assert result != null;
 
             // Handle shutdown
             if (result.isShutdownSignal()) {
+                this._isShuttingDown = true;
 
-                // Shutdown both engines
-                this.shutdown();
-
-                // Demand application to close
-                ApplicationContext.mainContext().getPrimaryStage().close();
+                Platform.runLater(() -> {
+                    // Shutdown both engines
+                    this.shutdown();
 
+                    // Demand application to close
+                    ApplicationContext.mainContext().getPrimaryStage().close();
+                });
                 return result;
             }
 
             // If not, gracefully falls through to displaying result
-            getTranslationEngine().displayResult(result);
+            Platform.runLater(() -> {
+                resultDisplayer.accept(result);
+                this.finishCommand();
+            });
             return result;
-        };
+        });
+    }
+
+    // called on the JavaFX application thread once the result of a command has been displayed
+    private void finishCommand() {
+        this._pendingCommandCount--;
+        if (this._pendingCommandCount == 0) {
+            this.getTranslationEngine().getUserInterface().setBusy(false);
+        }
     }
 
+    /**
+     * shuts down the DecisionEngine on the command thread, after any command still queued, and then the
+     * TranslationEngine
+     * must be called on the JavaFX application thread, and does nothing if the application is already shut down
+     */
     @Override
     public void shutdown() {
-        this.getDecisionEngine().shutdown();
+        if (this._isShutDown) {
+            return;
+        }
+        this._isShutDown = true;
+
+        this._commandThread.execute(() -> this.getDecisionEngine().shutdown());
+        this._commandThread.shutdown();
         this.getTranslationEngine().shutdown();
     }
 
@@ -79,10 +160,7 @@ public class Dispatcher implements DispatcherSpec {
 
     @Override public void start() {
         // Execute and display the result of the initial command
-        this._commandExecutor.andThen(result -> {
-            this.getTranslationEngine().displayResult(result);
-            return null;
-        }).apply(constructInitialCommand());
+        this.submit(constructInitialCommand(), getTranslationEngine()::displayResult);
     }
 
     @Override public TranslationEngineSpec getTranslationEngine() {
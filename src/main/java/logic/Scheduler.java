@@ -7,12 +7,13 @@ import skeleton.SchedulerSpec;
 import storage.Storage;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * @@author A0124772E
@@ -41,11 +42,7 @@ public class Scheduler implements SchedulerSpec {
     public TemporalRange schedule(Integer durationInMinutes) {
 
         // get the task that ends the latest, if it exists
-        Optional<CustomTime> endOfRangeToSearchIfItExists = this._storage.getAll()
-                .stream()
-                .filter(task -> task.getStartTime() != null && task.getEndTime() != null)
-                .map(Task::getEndTime)
-                .max(CustomTime::compareTo);
+        Optional<CustomTime> endOfRangeToSearchIfItExists = this._storage.getLatestEndTime();
 
         // if such a task does not exist, then there are no tasks, so just schedule the new task immediately
         if (!endOfRangeToSearchIfItExists.isPresent()) {
@@ -62,9 +59,7 @@ public class Scheduler implements SchedulerSpec {
                 .filter(range -> CustomTime.difference(range.getStart(), range.getEnd()) >= durationInMinutes)
                 .map(range -> {
                     CustomTime startTime = range.getStart();
-                    CustomTime endTime = new CustomTime(
-                            LocalDateTime.of(startTime.getDate(), startTime.getTime())
-                                    .plusMinutes(durationInMinutes));
+                    CustomTime endTime = startTime.plusMinutes(durationInMinutes);
                     return new TemporalRange(startTime, endTime);
                 })
                 .collect(Collectors.toList());
@@ -92,13 +87,61 @@ public class Scheduler implements SchedulerSpec {
             return false;
         }
 
-        return !this._storage.getAll()
-                .stream()
-                .map(task_ -> new TemporalRange(task_.getStartTime(), task_.getEndTime()))
-                .filter(range -> range.getStart() != null && range.getEnd() != null) // ensure start and end time objects are there
-                .filter(range_ -> taskRange.overlaps(range_))
-                .collect(Collectors.toList())
-                .isEmpty();
+        // the interval index in storage only holds tasks with both start and end times
+        return this._storage.hasOverlapping(taskRange.getStart(), taskRange.getEnd());
+    }
+
+    /**
+     * finds the tasks, among those to be inserted in bulk, that collide with pre-existing tasks or with each other
+     * this is a single sort-and-sweep over all the time ranges, rather than one collision check per task
+     * @param tasks to be inserted
+     * @return the colliding tasks out of those to be inserted, in their original order
+     */
+    @Override
+    public List<Task> findCollidingTasks(List<Task> tasks) {
+        // tasks to insert that have a time range, sorted by start time
+        List<Integer> order = IntStream.range(0, tasks.size())
+                .filter(i -> tasks.get(i).getStartTime() != null && tasks.get(i).getEndTime() != null)
+                .boxed()
+                .sorted(Comparator.comparing(i -> tasks.get(i).getStartTime()))
+                .collect(Collectors.toList());
+
+        // pre-existing tasks, already sorted by start time by the interval index in storage
+        List<Task> existingTasks = this._storage.searchByDate(null, null);
+
+        boolean[] isColliding = new boolean[tasks.size()];
+        CustomTime latestEnd = null; // latest end among the ranges swept so far
+        int latestEndOwner = -1; // index of the task to insert that owns latestEnd, or -1 for a pre-existing task
+
+        int i = 0;
+        int j = 0;
+        while (i < order.size() || j < existingTasks.size()) {
+            // merge both lists by start time
+            boolean isNext = j >= existingTasks.size() || (i < order.size()
+                    && tasks.get(order.get(i)).getStartTime().compareTo(existingTasks.get(j).getStartTime()) < 0);
+            Task task = isNext ? tasks.get(order.get(i)) : existingTasks.get(j);
+            int owner = isNext ? order.get(i++) : -(j++) - 1;
+
+            // the range collides with the one ending latest, if it starts before that one ends
+            if (latestEnd != null && task.getStartTime().compareTo(latestEnd) < 0
+                    && task.getStartTime().compareTo(task.getEndTime()) < 0) {
+                if (owner >= 0) {
+                    isColliding[owner] = true;
+                }
+                if (latestEndOwner >= 0) {
+                    isColliding[latestEndOwner] = true;
+                }
+            }
+            if (latestEnd == null || task.getEndTime().compareTo(latestEnd) > 0) {
+                latestEnd = task.getEndTime();
+                latestEndOwner = owner;
+            }
+        }
+
+        return IntStream.range(0, tasks.size())
+                .filter(index -> isColliding[index])
+                .mapToObj(tasks::get)
+                .collect(Collectors.toList());
     }
 
 
@@ -117,23 +160,18 @@ public class Scheduler implements SchedulerSpec {
             return new LinkedList<TemporalRange>();
         }
 
-        // first get the disjoint list of occupied time slots, sorted in chronological order
-        List<TemporalRange> occupiedRanges = this._storage.getAll()
+        // first get the occupied time slots within the bounds from the interval index in storage
+        // tasks with missing start/end times, and those that end before the lower bound or
+        // start after the upper bound, are not returned
+        List<TemporalRange> occupiedRanges = this._storage.searchOverlapping(lowerBound, upperBound)
                 .stream()
                 .map(task -> new TemporalRange(task.getStartTime(), task.getEndTime()))
                 .collect(Collectors.toList());
 
-        // remove tasks with missing start/end times
-        occupiedRanges = this.collapseOverlappingRanges(occupiedRanges
-                .stream()
-                .filter(range -> range.getStart() != null && range.getEnd() != null)
-                .collect(Collectors.toList()));
-
-        // strip tasks that end before the lower bound or start after the upper bound
-        occupiedRanges = occupiedRanges
-                .stream()
-                .filter(task -> !(lowerBound.compareTo(task.getEnd()) >= 0 || upperBound.compareTo(task.getStart()) <= 0))
-                .collect(Collectors.toList());
+        // then collapse them into a disjoint list, sorted in chronological order
+        if (!occupiedRanges.isEmpty()) {
+            occupiedRanges = this.collapseOverlappingRanges(occupiedRanges);
+        }
 
         /*
          * run through the whole list of occupied ranges
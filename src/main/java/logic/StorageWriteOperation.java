@@ -25,6 +25,12 @@ public class StorageWriteOperation {
     private static final String ERROR_RANGE_EMPTY_FOR_DELETE = Message.DELETE_FAIL.toString();
     private static final String ERROR_RANGE_EMPTY_FOR_MARK = Message.MARK_FAIL.toString();
     private static final String WARNING_COLLIDING_TASK = "Task collides with another already existing task!";
+    private static final String ERROR_NOTHING_TO_IMPORT = Message.IMPORT_EMPTY.toString();
+    private static final String WARNING_COLLIDING_IMPORTED_TASKS = Message.IMPORT_COLLISIONS.toString();
+
+    // rough sizes used to estimate the memory retained by an operation, in bytes
+    private static final long BYTES_OPERATION = 320; // this object, its three lambdas and its command
+    private static final long BYTES_ID_RANGE = 16; // array header, plus 4 bytes per id
 
     private Function<?, String> _initialOperation; // returns the error string for the operation, to be placed in an ExecutionResult
     private Function<?, Boolean> _undoOperation; // returns false if nothing was done due to original operation not being run
@@ -33,13 +39,13 @@ public class StorageWriteOperation {
     private Command _command; // command that gave rise to this execution unit
     private Integer _id = null; // id of the task handled by this op, if used
     private int[] _idRange = null; // set of ids handled by this op, if used
-    private Task _taskPreModification = null; // snapshot of the task before it is modified
-    private Task _taskPostModification = null; // snapshot of the task after it is modified
+    private TaskEditDelta _editDelta = null; // fields changed by an edit, before and after the change
+    private List<StorageWriteOperation> _batchOps = null; // operations grouped into this op, if it is a batch
     private boolean _wasExecuted = false; // success code for the operation
 
     private StorageSpec<Task> _storage; // the Storage instance used for the operation
 
-    public StorageWriteOperation(Command command, StorageSpec storage) {
+    public StorageWriteOperation(Command command, StorageSpec<Task> storage) {
         this._command = command;
         this._storage = storage;
 
@@ -56,11 +62,30 @@ public class StorageWriteOperation {
             case MARK:
                 this.createAsMarkUnit();
                 break;
+            case IMPORT:
+                this.createAsImportUnit();
+                break;
             default:
                 assert false;
         }
     }
 
+    /**
+     * creates a single operation out of a batch of write commands, which are executed in order
+     * and undone/redone together
+     * @param commands ADD/DELETE/EDIT/MARK commands
+     * @param storage
+     */
+    public StorageWriteOperation(List<Command> commands, StorageSpec<Task> storage) {
+        this._storage = storage;
+        this._batchOps = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            this._batchOps.add(new StorageWriteOperation(command, storage));
+        }
+
+        this.createAsBatchUnit();
+    }
+
 
     // getters
     public Function<?, String> getInitialOperation() {
@@ -79,6 +104,36 @@ public class StorageWriteOperation {
         return this._wasExecuted;
     }
 
+    // estimated heap retained by this operation while it is kept in the write history
+    public long getRetainedBytes() {
+        long bytes = BYTES_OPERATION;
+        if (this._idRange != null) {
+            bytes += BYTES_ID_RANGE + 4L * this._idRange.length;
+        }
+        if (this._editDelta != null) {
+            bytes += this._editDelta.getRetainedBytes();
+        }
+        if (this._batchOps != null) {
+            for (StorageWriteOperation op : this._batchOps) {
+                bytes += op.getRetainedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    // ids of the tasks that undoing or redoing this operation may touch
+    public int[] getReferencedIds() {
+        if (this._batchOps != null) {
+            return this._batchOps.stream()
+                    .flatMapToInt(op -> Arrays.stream(op.getReferencedIds()))
+                    .toArray();
+        }
+        if (this._idRange != null) {
+            return this._idRange;
+        }
+        return this._id == null ? new int[0] : new int[] { this._id };
+    }
+
 
     private void createAsAddUnit() {
 
@@ -221,28 +276,10 @@ public class StorageWriteOperation {
             assert this._id != null;
             Task task = this._storage.get(this._id);
 
-             this._taskPreModification = task.clone(); // take snapshot of task before modifying it, for undo operation
+            // record only the fields that change, for undo and redo operations
+            this._editDelta = TaskEditDelta.of(task, this._command);
 
-            // check which parameters have changed
-            if (this._command.hasParameter(Command.ParamName.TASK_NAME)) {
-                task.setTaskName(this._command.getParameter(Command.ParamName.TASK_NAME));
-            }
-            if (this._command.hasParameter(Command.ParamName.TASK_START)) {
-                task.setStartTime(this._command.getParameter(Command.ParamName.TASK_START));
-            }
-            if (this._command.hasParameter(Command.ParamName.TASK_END)) {
-                task.setEndTime(this._command.getParameter(Command.ParamName.TASK_END));
-            }
-
-            // Check for priority
-            if (this._command.hasParameter(Command.ParamName.PRIORITY_VALUE)) {
-                Task.Priority priority = this._command.getParameter(Command.ParamName.PRIORITY_VALUE);
-                if (priority != null) {
-                    task.setPriority(priority);
-                }
-            }
-
-            this._taskPostModification = task.clone(); // take snapshot of task after modifying it, for redo operation
+            this._storage.save(this._editDelta.apply(task)); // let the storage know that the task has changed
 
             this._wasExecuted = true; // editing a task never fails
             return null;
@@ -250,14 +287,14 @@ public class StorageWriteOperation {
 
 
         this._undoOperation = v -> {
-            assert this._taskPreModification != null;
-            this._storage.save(this._taskPreModification);
+            assert this._editDelta != null;
+            this._storage.save(this._editDelta.revert(this._storage.get(this._id)));
             return true;
         };
 
         this._redoOperation = v -> {
-            assert this._taskPostModification != null;
-            this._storage.save(this._taskPostModification);
+            assert this._editDelta != null;
+            this._storage.save(this._editDelta.apply(this._storage.get(this._id)));
             return true;
         };
 
@@ -282,8 +319,11 @@ public class StorageWriteOperation {
             }
 
             Arrays.stream(this._idRange)
-                    .mapToObj(this._storage::get)
-                    .forEach(task -> task.setCompleted(true));
+                    .mapToObj(id -> this._storage.get(id).clone())
+                    .forEach(task -> {
+                        task.setCompleted(true);
+                        this._storage.save(task);
+                    });
 
             this._wasExecuted = true;
             return null;
@@ -298,8 +338,11 @@ public class StorageWriteOperation {
             assert this._idRange != null;
 
             Arrays.stream(this._idRange)
-                    .mapToObj(this._storage::get)
-                    .forEach(task -> task.setCompleted(false));
+                    .mapToObj(id -> this._storage.get(id).clone())
+                    .forEach(task -> {
+                        task.setCompleted(false);
+                        this._storage.save(task);
+                    });
             return true;
         };
 
@@ -311,8 +354,120 @@ public class StorageWriteOperation {
             assert this._idRange != null;
 
             Arrays.stream(this._idRange)
-                    .mapToObj(this._storage::get)
-                    .forEach(task -> task.setCompleted(true));
+                    .mapToObj(id -> this._storage.get(id).clone())
+                    .forEach(task -> {
+                        task.setCompleted(true);
+                        this._storage.save(task);
+                    });
+            return true;
+        };
+
+    }
+
+    private void createAsBatchUnit() {
+
+        this._initialOperation = v -> {
+            // execute every op in order, collecting the distinct error strings
+            List<String> errorMsgs = new ArrayList<>();
+            for (StorageWriteOperation op : this._batchOps) {
+                String errorMsg = op.getInitialOperation().apply(null);
+                if (errorMsg != null && !errorMsgs.contains(errorMsg)) {
+                    errorMsgs.add(errorMsg);
+                }
+                this._wasExecuted |= op.isOperationExecuted(); // the batch did something if any of its ops did
+            }
+            return errorMsgs.isEmpty() ? null : String.join("\n", errorMsgs);
+        };
+
+
+        this._undoOperation = v -> {
+            if (!this._wasExecuted) {
+                return false;
+            }
+
+            // undo in reverse order, skipping over ops that did nothing
+            for (int i = this._batchOps.size() - 1; i >= 0; i--) {
+                StorageWriteOperation op = this._batchOps.get(i);
+                if (op.isOperationExecuted()) {
+                    op.getUndoOperation().apply(null);
+                }
+            }
+            return true;
+        };
+
+        this._redoOperation = v -> {
+            if (!this._wasExecuted) {
+                return false;
+            }
+
+            for (StorageWriteOperation op : this._batchOps) {
+                if (op.isOperationExecuted()) {
+                    op.getRedoOperation().apply(null);
+                }
+            }
+            return true;
+        };
+
+    }
+
+    private void createAsImportUnit() {
+
+        this._initialOperation = v -> {
+            List<Task> tasksToImport = this._command.getParameter(Command.ParamName.IMPORTED_TASKS);
+            assert tasksToImport != null;
+
+            // the tasks are held by storage from now on, so the command need not keep them for undo/redo
+            this._command.removeParameter(Command.ParamName.IMPORTED_TASKS);
+
+            if (tasksToImport.isEmpty()) {
+                this._wasExecuted = false; // we didn't import anything
+                return ERROR_NOTHING_TO_IMPORT;
+            }
+
+            // check for collisions in a single pass over all tasks, before inserting any of them
+            int collidingTaskCount = Scheduler.getInstance().findCollidingTasks(tasksToImport).size();
+
+            this._idRange = this._storage.saveAll(tasksToImport);
+
+            this._wasExecuted = true;
+
+            if (collidingTaskCount > 0) {
+                return String.format(WARNING_COLLIDING_IMPORTED_TASKS, collidingTaskCount);
+            } else {
+                return null;
+            }
+        };
+
+
+        this._undoOperation = v -> {
+            if (!this._wasExecuted) {
+                return false;
+            }
+
+            assert this._idRange != null;
+            this._storage.beginBatch();
+            try {
+                Arrays.stream(this._idRange)
+                        .forEach(this._storage::remove);
+            } finally {
+                this._storage.endBatch();
+            }
+            return true;
+        };
+
+        this._redoOperation = v -> {
+            if (!this._wasExecuted) {
+                return false;
+            }
+
+            assert this._idRange != null;
+            this._storage.beginBatch();
+            try {
+                Arrays.stream(this._idRange)
+                        .forEach(this._storage::undelete);
+            } finally {
+                this._storage.endBatch();
+            }
             return true;
         };
 
@@ -0,0 +1,142 @@
+package logic;
+
+import java.util.Objects;
+
+import shared.Command;
+import shared.CustomTime;
+import shared.Task;
+
+/**
+ * Records the fields of a task changed by an EDIT, with their values before and after the edit
+ * Only changed fields are kept, so an edit is undone and redone without holding on to whole copies of the task
+ *
+ * Deltas are immutable; applying one returns a modified copy of the task, since tasks in Storage are never modified
+ * in place.
+ *
+ * @@author A0124772E
+ */
+public class TaskEditDelta {
+
+    // bits of _changedFields
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_START = 1 << 1;
+    private static final int FIELD_END = 1 << 2;
+    private static final int FIELD_PRIORITY = 1 << 3;
+
+    // rough sizes used to estimate the memory retained by a delta, in bytes
+    private static final long BYTES_DELTA = 56; // this object and its fields
+    private static final long BYTES_TIME = 64; // a CustomTime and its date and time
+    private static final long BYTES_STRING = 40; // string header, plus 2 bytes per char
+
+    private final int _changedFields;
+    private final String _oldName;
+    private final String _newName;
+    private final CustomTime _oldStart;
+    private final CustomTime _newStart;
+    private final CustomTime _oldEnd;
+    private final CustomTime _newEnd;
+    private final Task.Priority _oldPriority;
+    private final Task.Priority _newPriority;
+
+    private TaskEditDelta(int changedFields, String oldName, String newName, CustomTime oldStart,
+                          CustomTime newStart, CustomTime oldEnd, CustomTime newEnd,
+                          Task.Priority oldPriority, Task.Priority newPriority) {
+        this._changedFields = changedFields;
+        this._oldName = oldName;
+        this._newName = newName;
+        this._oldStart = oldStart;
+        this._newStart = newStart;
+        this._oldEnd = oldEnd;
+        this._newEnd = newEnd;
+        this._oldPriority = oldPriority;
+        this._newPriority = newPriority;
+    }
+
+    /**
+     * builds the delta that an EDIT command makes to a task
+     * parameters that are absent from the command, or equal to the current value, are not recorded
+     * @param task the task before the edit
+     * @param command the EDIT command
+     * @return the delta
+     */
+    public static TaskEditDelta of(Task task, Command command) {
+        int changedFields = 0;
+        String newName = null;
+        CustomTime newStart = null;
+        CustomTime newEnd = null;
+        Task.Priority newPriority = null;
+
+        if (command.hasParameter(Command.ParamName.TASK_NAME)) {
+            newName = command.getParameter(Command.ParamName.TASK_NAME);
+            changedFields |= Objects.equals(newName, task.getTaskName()) ? 0 : FIELD_NAME;
+        }
+        if (command.hasParameter(Command.ParamName.TASK_START)) {
+            newStart = command.getParameter(Command.ParamName.TASK_START);
+            changedFields |= Objects.equals(newStart, task.getStartTime()) ? 0 : FIELD_START;
+        }
+        if (command.hasParameter(Command.ParamName.TASK_END)) {
+            newEnd = command.getParameter(Command.ParamName.TASK_END);
+            changedFields |= Objects.equals(newEnd, task.getEndTime()) ? 0 : FIELD_END;
+        }
+        // a null priority leaves the priority as it is
+        if (command.hasParameter(Command.ParamName.PRIORITY_VALUE)) {
+            newPriority = command.getParameter(Command.ParamName.PRIORITY_VALUE);
+            changedFields |= newPriority == null || newPriority == task.getPriority() ? 0 : FIELD_PRIORITY;
+        }
+
+        return new TaskEditDelta(changedFields,
+                (changedFields & FIELD_NAME) != 0 ? task.getTaskName() : null,
+                (changedFields & FIELD_NAME) != 0 ? newName : null,
+                (changedFields & FIELD_START) != 0 ? task.getStartTime() : null,
+                (changedFields & FIELD_START) != 0 ? newStart : null,
+                (changedFields & FIELD_END) != 0 ? task.getEndTime() : null,
+                (changedFields & FIELD_END) != 0 ? newEnd : null,
+                (changedFields & FIELD_PRIORITY) != 0 ? task.getPriority() : null,
+                (changedFields & FIELD_PRIORITY) != 0 ? newPriority : null);
+    }
+
+    /**
+     * @param task the task before the edit
+     * @return a copy of the task with the edit made
+     */
+    public Task apply(Task task) {
+        return this.withFields(task, this._newName, this._newStart, this._newEnd, this._newPriority);
+    }
+
+    /**
+     * @param task the task after the edit
+     * @return a copy of the task with the edit reverted
+     */
+    public Task revert(Task task) {
+        return this.withFields(task, this._oldName, this._oldStart, this._oldEnd, this._oldPriority);
+    }
+
+    private Task withFields(Task task, String name, CustomTime start, CustomTime end, Task.Priority priority) {
+        Task copy = task.clone();
+        if ((this._changedFields & FIELD_NAME) != 0) {
+            copy.setTaskName(name);
+        }
+        if ((this._changedFields & FIELD_START) != 0) {
+            copy.setStartTime(start);
+        }
+        if ((this._changedFields & FIELD_END) != 0) {
+            copy.setEndTime(end);
+        }
+        if ((this._changedFields & FIELD_PRIORITY) != 0) {
+            copy.setPriority(priority);
+        }
+        return copy;
+    }
+
+    // estimated heap retained by this delta
+    public long getRetainedBytes() {
+        return BYTES_DELTA
+                + estimateBytes(this._oldName) + estimateBytes(this._newName)
+                + (this._oldStart == null ? 0 : BYTES_TIME) + (this._newStart == null ? 0 : BYTES_TIME)
+                + (this._oldEnd == null ? 0 : BYTES_TIME) + (this._newEnd == null ? 0 : BYTES_TIME);
+    }
+
+    private static long estimateBytes(String string) {
+        return string == null ? 0 : BYTES_STRING + 2L * string.length();
+    }
+}
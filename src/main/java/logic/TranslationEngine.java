@@ -2,6 +2,7 @@ package logic;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import javafx.util.Pair;
@@ -32,7 +33,7 @@ public class TranslationEngine implements TranslationEngineSpec {
     /**
      * Properties
      */
-    private Function<Command, ExecutionResult> _commandExecutionHandler;
+    private Function<Command, Future<ExecutionResult>> _commandExecutionHandler;
     private Command _lastCommand;
 
     /**
@@ -56,7 +57,7 @@ public class TranslationEngine implements TranslationEngineSpec {
         return instance;
     }
 
-    @Override public void setCommandExecutionHandler(Function<Command, ExecutionResult> handler) {
+    @Override public void setCommandExecutionHandler(Function<Command, Future<ExecutionResult>> handler) {
         assert (handler != null);
         this._commandExecutionHandler = handler;
     }
@@ -93,10 +94,17 @@ public class TranslationEngine implements TranslationEngineSpec {
 
         switch (result.getViewType()) {
         case TASK_LIST:
-            // Convert list to one with visual IDs only
-            List<VisualTask> visualTaskList = getVisualIndexMapper()
-                    .translateRawToVisual(result.getData());
-            View view = new TaskListView(visualTaskList, this._lastCommand);
+            View view;
+            if (result.hasChange()) {
+                // Only patch the list already shown, but visual indices still refer to the whole new list
+                getVisualIndexMapper().setItemsList(result.getData());
+                view = new TaskListView(result.getChange(), this._lastCommand);
+            } else {
+                // Convert list to one with visual IDs only
+                List<VisualTask> visualTaskList = getVisualIndexMapper()
+                        .translateRawToVisual(result.getData());
+                view = new TaskListView(visualTaskList, this._lastCommand);
+            }
             this.getUserInterface().render(view);
 
             // Set header title
@@ -123,6 +131,18 @@ public class TranslationEngine implements TranslationEngineSpec {
         this.displayNotification(result);
     }
 
+    /**
+     * Displays the result of a command entered by the user. Commands are executed in the background, so the command
+     * is given with its result rather than taken to be the last one entered.
+     *
+     * @param result ExecutionResult containing data that is going to be translated to a GUI display
+     * @param command the command that produced the result
+     */
+    @Override public void displayResult(ExecutionResult result, Command command) {
+        this._lastCommand = command;
+        this.displayResult(result);
+    }
+
     @Override public void shutdown() {
         this.getUserInterface().cleanUp();
     }
@@ -149,10 +169,7 @@ public class TranslationEngine implements TranslationEngineSpec {
             return;
         }
 
-        // Set last command to this command
-        this._lastCommand = command;
-
-        // Schedule for displaying
+        // Schedule for executing, the result is displayed through displayResult once it is ready
         this._commandExecutionHandler.apply(command);
     }
 
@@ -234,6 +251,22 @@ public class TranslationEngine implements TranslationEngineSpec {
                     } else {
                         message = Message.MARK_SUCCESS.toString();
                     }
+                    break;
+                case IMPORT:
+                    if (result.hasErrorMessage()) {
+                        message = result.getErrorMessage();
+                    } else {
+                        String filePath = this._lastCommand.getParameter(Command.ParamName.FILE_PATH);
+                        message = String.format(Message.IMPORT_SUCCESS.toString(), filePath);
+                    }
+                    break;
+                case EXPORT:
+                    if (result.hasErrorMessage()) {
+                        message = result.getErrorMessage();
+                    } else {
+                        String filePath = this._lastCommand.getParameter(Command.ParamName.FILE_PATH);
+                        message = String.format(Message.EXPORT_SUCCESS.toString(), filePath);
+                    }
             }
         }
 
@@ -79,6 +79,15 @@ public class VisualIndexMapper {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Sets the list that visual indices refer to, without creating any VisualTask, for when the list is not displayed
+     *
+     * @param rawList the list of tasks in the order they would be displayed
+     */
+    public void setItemsList(List<Task> rawList) {
+        this._itemsList = rawList;
+    }
+
     private static int getVisualIndexFromArrayIndex(int arrayIndex) {
         return arrayIndex + 1;
     }
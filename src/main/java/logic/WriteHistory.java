@@ -1,6 +1,7 @@
 package logic;
 
 import skeleton.WriteHistorySpec;
+import storage.UserPreferences;
 
 import java.util.*;
 
@@ -10,6 +11,9 @@ import java.util.*;
  * This component assists the Decision Engine by keeping track of all write operations performed on Storage.
  * This component will enable undo/redo operations.
  *
+ * The history is a ring buffer of at most a set number of operations, whose estimated memory use is also bounded.
+ * The oldest operations are dropped when either limit is reached, and can no longer be undone.
+ *
  * @@author A0124772E
  */
 public class WriteHistory implements WriteHistorySpec {
@@ -18,17 +22,27 @@ public class WriteHistory implements WriteHistorySpec {
     private static WriteHistory instance = null;
     public static WriteHistory getInstance() {
         if (instance == null) {
-            instance = new WriteHistory();
+            UserPreferences preferences = UserPreferences.getInstance();
+            instance = new WriteHistory(preferences.getUndoHistoryDepth(), preferences.getUndoHistoryBytes());
         }
         return instance;
     }
-    private WriteHistory() {
+    // limits are injected so that tests can use a small history
+    WriteHistory(int maxDepth, long maxRetainedBytes) {
+        this._opSequence = new StorageWriteOperation[Math.max(1, maxDepth)];
+        this._maxRetainedBytes = maxRetainedBytes;
     }
 
 
     // fields
-    private LinkedList<StorageWriteOperation> _opSequence = new LinkedList<>();
-    private int _opIndex = -1; // refers to latest operation performed (without being cancelled by an undo)
+    // ring buffer of operations, oldest first, starting at _oldestPosition
+    private StorageWriteOperation[] _opSequence;
+    private int _oldestPosition = 0;
+    private int _opCount = 0;
+    private int _opIndex = -1; // refers to latest operation performed (without being cancelled by an undo), counted from the oldest
+    private long _maxRetainedBytes;
+    private long _retainedBytes = 0; // estimated heap retained by the operations in the history
+    private long _evictedOpCount = 0; // operations dropped from the history to respect its limits
 
 
     // methods
@@ -37,9 +51,18 @@ public class WriteHistory implements WriteHistorySpec {
         this.checkIndexInvariant();
 
         this.chopOffAfterCurrentIndex();
-        this._opSequence.add(op);
+        if (this._opCount == this._opSequence.length) {
+            this.evictOldest();
+        }
+        this._opSequence[this.positionOf(this._opCount++)] = op;
+        this._retainedBytes += op.getRetainedBytes();
         this._opIndex++;
 
+        // keep at least the latest operation, however large it is
+        while (this._retainedBytes > this._maxRetainedBytes && this._opCount > 1) {
+            this.evictOldest();
+        }
+
         this.checkIndexInvariant();
     }
 
@@ -63,7 +86,7 @@ public class WriteHistory implements WriteHistorySpec {
         }
 
         // get the operation we wish to undo
-        StorageWriteOperation op = this._opSequence.get(this._opIndex--);
+        StorageWriteOperation op = this.get(this._opIndex--);
 
         // apply undo operation if the operation was actually performed, otherwise skip over it
         if (!op.isOperationExecuted()) {
@@ -90,11 +113,11 @@ public class WriteHistory implements WriteHistorySpec {
         }
 
         // get the operation we wish to redo
-        StorageWriteOperation op = this._opSequence.get(++this._opIndex);
+        StorageWriteOperation op = this.get(++this._opIndex);
 
         // apply redo operation if the operation was actually performed, otherwise skip over it
         if (!op.isOperationExecuted()) {
-            this.redo();
+            return this.redo();
         }
 
         boolean isRedoSuccessful = op.getRedoOperation().apply(null);
@@ -106,10 +129,71 @@ public class WriteHistory implements WriteHistorySpec {
     }
 
 
+    // stats
+    public int getDepth() {
+        return this._opCount;
+    }
+
+    public int getMaxDepth() {
+        return this._opSequence.length;
+    }
+
+    public long getRetainedBytes() {
+        return this._retainedBytes;
+    }
+
+    public long getMaxRetainedBytes() {
+        return this._maxRetainedBytes;
+    }
+
+    public long getEvictedOpCount() {
+        return this._evictedOpCount;
+    }
+
+
+    /**
+     * @return the ids of all tasks touched by operations that can still be undone or redone
+     */
+    @Override
+    public Set<Integer> getReferencedTaskIds() {
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < this._opCount; i++) {
+            for (int id : this.get(i).getReferencedIds()) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+
     // helper methods
+    private StorageWriteOperation get(int index) {
+        return this._opSequence[this.positionOf(index)];
+    }
+
+    // position in the ring buffer of the operation at the given index, counted from the oldest
+    private int positionOf(int index) {
+        return (this._oldestPosition + index) % this._opSequence.length;
+    }
+
+    private void evictOldest() {
+        this.checkIndexInvariant();
+        this._retainedBytes -= this._opSequence[this._oldestPosition].getRetainedBytes();
+        this._opSequence[this._oldestPosition] = null;
+        this._oldestPosition = this.positionOf(1);
+        this._opCount--;
+        this._opIndex--;
+        this._evictedOpCount++;
+        this.checkIndexInvariant();
+    }
+
     private void chopOffAfter(int index) {
         this.checkIndexInvariant();
-        this._opSequence.subList(index + 1, this._opSequence.size()).clear();
+        while (this._opCount > index + 1) {
+            int position = this.positionOf(--this._opCount);
+            this._retainedBytes -= this._opSequence[position].getRetainedBytes();
+            this._opSequence[position] = null;
+        }
         this.checkIndexInvariant();
     }
 
@@ -124,13 +208,13 @@ public class WriteHistory implements WriteHistorySpec {
     }
 
     private boolean existsOperationsToRedo() {
-        return this._opIndex + 1 < this._opSequence.size();
+        return this._opIndex + 1 < this._opCount;
     }
 
     // blows up if the index invariant is not satisfied;
     private void checkIndexInvariant() {
         boolean isLowerBoundInvariantSatisfied = this._opIndex >= -1;
-        boolean isUpperBoundInvariantSatisfied = this._opIndex < this._opSequence.size();
+        boolean isUpperBoundInvariantSatisfied = this._opIndex < this._opCount;
 
         assert isLowerBoundInvariantSatisfied && isUpperBoundInvariantSatisfied;
     }
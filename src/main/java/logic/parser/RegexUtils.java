@@ -2,7 +2,10 @@ package logic.parser;
 
 import java.time.Month;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -16,6 +19,19 @@ public class RegexUtils {
     public static final String MATCHER_GROUP_DATE_YEAR = "YEAR";
     public static final String MATCHER_GROUP_DATE_DAY = "DAY";
     public static final String MATCHER_GROUP_DATE_MONTH = "MONTH";
+    private static final int SIZE_PATTERN_CACHE = 64;
+    private static final String REGEX_NO_SURROUNDING_QUOTES =
+            "(?=(?:(?:(?:[^\"\\\\]++|\\\\.)*+\"){2})*+(?:[^\"\\\\]++|\\\\.)*+$)";
+
+    /**
+     * Least recently used cache of the Patterns compiled by caseInsensitiveMatch
+     */
+    private static final Map<String, Pattern> patternCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, Pattern>(SIZE_PATTERN_CACHE, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                    return this.size() > SIZE_PATTERN_CACHE;
+                }
+            });
 
     /**
      * Constructs a Pattern that uses the Regular Expression inside the
@@ -27,15 +43,26 @@ public class RegexUtils {
         return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
     }
 
+    /**
+     * Returns a case-insensitive Pattern for the RegExp given, reusing the one
+     * compiled previously if it is still in the cache.
+     * @param pattern a regex string
+     * @return a compiled case-insensitive Pattern
+     */
+    public static Pattern cachedCaseInsensitive(String pattern) {
+        return patternCache.computeIfAbsent(pattern, RegexUtils::caseInsensitive);
+    }
+
     /**
      * Constructs a matcher that matches the test string case-insensitively
-     * with the RegExp pattern given.
+     * with the RegExp pattern given. The compiled pattern is cached, so that
+     * matching against the same RegExp again does not recompile it.
      * @param pattern a regex string
      * @param testString a string to be tested for matches
      * @return a matcher that matches the string with the regex
      */
     public static Matcher caseInsensitiveMatch(String pattern, String testString) {
-        return caseInsensitive(pattern).matcher(testString);
+        return cachedCaseInsensitive(pattern).matcher(testString);
     }
 
     /**
@@ -126,7 +153,49 @@ public class RegexUtils {
      * @return the modified RegExp string
      */
     public static String noSurroundingQuotes(String currentRegex) {
-        return currentRegex.concat("(?=(?:(?:(?:[^\"\\\\]++|\\\\.)*+\"){2})*+(?:[^\"\\\\]++|\\\\.)*+$)");
+        return currentRegex.concat(REGEX_NO_SURROUNDING_QUOTES);
+    }
+
+    /**
+     * Removes the check added by noSurroundingQuotes from a compiled pattern,
+     * for callers that use isOutsideQuotes instead, such as when a match must
+     * not depend on the text after it.
+     * @param pattern a pattern built with noSurroundingQuotes
+     * @return the pattern without the check, with the same flags
+     */
+    public static Pattern withoutQuoteCheck(Pattern pattern) {
+        String regex = pattern.pattern();
+        assert regex.endsWith(REGEX_NO_SURROUNDING_QUOTES);
+        return Pattern.compile(regex.substring(0, regex.length() - REGEX_NO_SURROUNDING_QUOTES.length()),
+                pattern.flags());
+    }
+
+    /**
+     * Checks the same condition as the lookahead added by noSurroundingQuotes,
+     * that the rest of the text from the index has an even number of
+     * unescaped quotes and does not end with a lone backslash.
+     * @param text the whole text
+     * @param index where the match ends
+     * @return true if a match ending at the index is not between quotes
+     */
+    public static boolean isOutsideQuotes(CharSequence text, int index) {
+        int quoteCount = 0;
+        int i = index;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == text.length()) {
+                    return false;
+                }
+                i += 2;
+            } else {
+                if (c == '"') {
+                    quoteCount++;
+                }
+                i++;
+            }
+        }
+        return quoteCount % 2 == 0;
     }
 
     /**
@@ -16,7 +16,7 @@ public class Command {
      */
     public enum Instruction {
         ADD, DISPLAY, MARK, EDIT, SEARCH, UNDO, REDO, DELETE,
-        SCHEDULE, EXIT, UNRECOGNISED, INVALID;
+        SCHEDULE, IMPORT, EXPORT, EXIT, UNRECOGNISED, INVALID;
     }
 
     public enum ParamType {
@@ -46,7 +46,10 @@ public class Command {
         TASK_INDEX_RANGES(ParamType.LIST),
         TASK_UNIVERSALLY_QUANTIFIED(ParamType.BOOLEAN),
 
-        TASK_DURATION(ParamType.INTEGER);
+        TASK_DURATION(ParamType.INTEGER),
+
+        FILE_PATH(ParamType.STRING),
+        IMPORTED_TASKS(ParamType.LIST);
 
         public final ParamType type;
 
@@ -6,6 +6,15 @@ import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 
 /**
+ * A point in time whose date and time of day may each be missing.
+ *
+ * Alongside the date and time, every CustomTime caches its position as a
+ * primitive epoch minute and the nanoseconds within that minute, so that
+ * comparisons and arithmetic are plain long math. A missing date or time is
+ * represented as LocalDate.MAX or LocalTime.MAX in these primitives, which
+ * gives the ordering used by compareTo. CustomTimes produced by arithmetic only
+ * build their LocalDate and LocalTime when these are asked for.
+ *
  * @@author A0127046L
  */
 public class CustomTime implements Comparable<CustomTime> {
@@ -20,26 +29,59 @@ public class CustomTime implements Comparable<CustomTime> {
     private static final ChronoUnit PRECISION_TIME_DEFAULT = ChronoUnit.MINUTES;
     private static final ChronoUnit PRECISION_TIME_ALL_NULL = ChronoUnit.FOREVER;
 
+    private static final long MINUTES_PER_DAY = 1440;
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+    private static final long EPOCH_DAY_MISSING = LocalDate.MAX.toEpochDay();
+    private static final long MINUTE_OF_DAY_MISSING = LocalTime.MAX.getHour() * 60 + LocalTime.MAX.getMinute();
+    private static final long NANO_OF_MINUTE_MISSING = LocalTime.MAX.toNanoOfDay() % NANOS_PER_MINUTE;
+
     /**
      * Properties
      */
-    private final LocalDate _date;
-    private final LocalTime _time;
+    private LocalDate _date; // built lazily when created from epoch minutes
+    private LocalTime _time; // built lazily when created from epoch minutes
+    private final boolean _hasDate;
+    private final boolean _hasTime;
+    private final long _epochMinute;
+    private final long _nanoOfMinute;
     private final TemporalUnit _precision;
 
     public CustomTime(LocalDate date, LocalTime time, TemporalUnit precision) {
         this._date = date;
         this._time = time;
-        if (time == null || time.getHour() == 0 && time.getMinute() == 0) {
-            if (date == null) {
-                this._precision = PRECISION_TIME_ALL_NULL;
+        this._hasDate = date != null;
+        this._hasTime = time != null;
+
+        long epochDay = date != null ? date.toEpochDay() : EPOCH_DAY_MISSING;
+        long minuteOfDay = time != null ? time.getHour() * 60 + time.getMinute() : MINUTE_OF_DAY_MISSING;
+        this._epochMinute = epochDay * MINUTES_PER_DAY + minuteOfDay;
+        this._nanoOfMinute = time != null ? time.toNanoOfDay() % NANOS_PER_MINUTE : NANO_OF_MINUTE_MISSING;
+        this._precision = precisionOf(this._hasDate, this._hasTime, minuteOfDay, precision);
+    }
+
+    /**
+     * Constructs a CustomTime with both a date and a time from its primitive
+     * representation, without building the LocalDate and LocalTime.
+     */
+    private CustomTime(long epochMinute, long nanoOfMinute) {
+        this._hasDate = true;
+        this._hasTime = true;
+        this._epochMinute = epochMinute;
+        this._nanoOfMinute = nanoOfMinute;
+        this._precision = precisionOf(true, true, Math.floorMod(epochMinute, MINUTES_PER_DAY),
+                PRECISION_TIME_DEFAULT);
+    }
+
+    private static TemporalUnit precisionOf(boolean hasDate, boolean hasTime, long minuteOfDay,
+                                            TemporalUnit precision) {
+        if (!hasTime || minuteOfDay == 0) {
+            if (!hasDate) {
+                return PRECISION_TIME_ALL_NULL;
             } else {
-                this._precision = ChronoUnit.DAYS;
+                return ChronoUnit.DAYS;
             }
-        } else {
-            this._precision = precision;
         }
-
+        return precision;
     }
 
     public CustomTime(LocalDate date, LocalTime time) {
@@ -55,7 +97,7 @@ public class CustomTime implements Comparable<CustomTime> {
     }
 
     public CustomTime withPrecision(TemporalUnit unit) {
-        return new CustomTime(this._date, this._time, unit);
+        return new CustomTime(this.getDate(), this.getTime(), unit);
     }
 
     public static CustomTime now() {
@@ -71,7 +113,7 @@ public class CustomTime implements Comparable<CustomTime> {
     }
 
     public CustomTime sameDayAt(LocalTime time) {
-        return new CustomTime(this._date, time);
+        return new CustomTime(this.getDate(), time);
     }
 
     public CustomTime current(DayOfWeek dayOfWeek) {
@@ -93,10 +135,17 @@ public class CustomTime implements Comparable<CustomTime> {
 
 
     public LocalDate getDate() {
+        if (this._date == null && this._hasDate) {
+            this._date = LocalDate.ofEpochDay(Math.floorDiv(this._epochMinute, MINUTES_PER_DAY));
+        }
         return this._date;
     }
 
     public LocalTime getTime() {
+        if (this._time == null && this._hasTime) {
+            long minuteOfDay = Math.floorMod(this._epochMinute, MINUTES_PER_DAY);
+            this._time = LocalTime.ofNanoOfDay(minuteOfDay * NANOS_PER_MINUTE + this._nanoOfMinute);
+        }
         return this._time;
     }
 
@@ -105,25 +154,25 @@ public class CustomTime implements Comparable<CustomTime> {
     }
 
     public boolean hasDate() {
-        return this._date != null;
+        return this._hasDate;
     }
 
     public boolean hasTime() {
-        return this._time != null;
+        return this._hasTime;
     }
 
     public boolean hasSameDate(CustomTime ct) { return this.getDate().equals(ct.getDate()); }
 
     @Override public String toString() {
         StringBuilder sb = new StringBuilder();
-        if (this._date != null) {
-            sb.append(FORMATTER_DATE.format(this._date));
+        if (this.hasDate()) {
+            sb.append(FORMATTER_DATE.format(this.getDate()));
         } else {
             sb.append("null");
         }
         sb.append(CHAR_SEPARATOR);
-        if (this._time != null) {
-            sb.append(FORMATTER_TIME.format(this._time));
+        if (this.hasTime()) {
+            sb.append(FORMATTER_TIME.format(this.getTime()));
         } else {
             sb.append("null");
         }
@@ -152,17 +201,21 @@ public class CustomTime implements Comparable<CustomTime> {
 
     @Override
     public int compareTo(CustomTime time) {
-        LocalDate thisDate = this.hasDate() ? this.getDate() : LocalDate.MAX;
-        LocalDate otherDate = time.hasDate() ? time.getDate() : LocalDate.MAX;
-        int comparison = thisDate.compareTo(otherDate);
-        // If date differs return them straight away
+        // Missing dates and times are already LocalDate.MAX and LocalTime.MAX here
+        long thisDay = Math.floorDiv(this._epochMinute, MINUTES_PER_DAY);
+        long otherDay = Math.floorDiv(time._epochMinute, MINUTES_PER_DAY);
+        // If date differs return them straight away, with the same result as LocalDate.compareTo
+        if (thisDay != otherDay) {
+            LocalDate thisDate = this.hasDate() ? this.getDate() : LocalDate.MAX;
+            LocalDate otherDate = time.hasDate() ? time.getDate() : LocalDate.MAX;
+            return thisDate.compareTo(otherDate);
+        }
+
+        int comparison = Long.compare(this._epochMinute, time._epochMinute);
         if (comparison != 0) {
             return comparison;
         }
-
-        LocalTime thisTime = this.hasTime() ? this.getTime() : LocalTime.MAX;
-        LocalTime otherTime = time.hasTime() ? time.getTime() : LocalTime.MAX;
-        return thisTime.compareTo(otherTime);
+        return Long.compare(this._nanoOfMinute, time._nanoOfMinute);
     }
 
     @Override
@@ -172,12 +225,8 @@ public class CustomTime implements Comparable<CustomTime> {
         if (o instanceof CustomTime) {
             CustomTime time = (CustomTime) o;
             if (this.hasDate() ^ time.hasDate()) return false;
-            if (this.hasDate() && !this.getDate().equals(time.getDate())) {
-                return false;
-            }
-
             if (this.hasTime() ^ time.hasTime()) return false;
-            return !(this.hasTime() && !this.getTime().equals(time.getTime()));
+            return this._epochMinute == time._epochMinute && this._nanoOfMinute == time._nanoOfMinute;
 
         } else if (o instanceof LocalDateTime) {
             CustomTime time = new CustomTime((LocalDateTime) o);
@@ -191,27 +240,54 @@ public class CustomTime implements Comparable<CustomTime> {
         return !(this.hasDate() || this.hasTime());
     }
 
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this._epochMinute) * 31 + Long.hashCode(this._nanoOfMinute);
+    }
+
+    /**
+     * Returns the number of whole minutes between the two times, in either
+     * direction. A missing time is taken as the start of the day.
+     */
     public static int difference(CustomTime time1, CustomTime time2) {
         assert time1.hasDate() && time2.hasDate();
-        LocalTime timeOf1 = time1.hasTime() ? time1.getTime() : LocalTime.of(0, 0);
-        LocalTime timeOf2 = time2.hasTime() ? time2.getTime() : LocalTime.of(0, 0);
-
-        LocalDateTime fullTime1 = time1.getDate().atTime(timeOf1);
-        LocalDateTime fullTime2 = time2.getDate().atTime(timeOf2);
-        return (int) Math.abs(fullTime1.until(fullTime2, ChronoUnit.MINUTES));
+        long minutes = time2.getEpochMinuteAtStartOfDay() - time1.getEpochMinuteAtStartOfDay();
+        long nanos = time2.getNanoOfMinuteAtStartOfDay() - time1.getNanoOfMinuteAtStartOfDay();
+
+        // Only count whole minutes, as LocalDateTime.until does
+        if (minutes > 0 && nanos < 0) {
+            minutes--;
+        } else if (minutes < 0 && nanos > 0) {
+            minutes++;
+        }
+        return (int) Math.abs(minutes);
     }
 
+    /**
+     * Returns this time shifted by the given number of minutes. A missing time
+     * is taken as the start of the day.
+     */
     public CustomTime plusMinutes(long minutes) {
-        LocalDateTime timeRepresentation = LocalDateTime.of(this.getDate(), this.getTime());
-        LocalDateTime timeRepresentationAfterIncrement = timeRepresentation.plusMinutes(minutes);
+        assert this.hasDate();
+        return new CustomTime(this.getEpochMinuteAtStartOfDay() + minutes, this.getNanoOfMinuteAtStartOfDay());
+    }
 
-        return new CustomTime(timeRepresentationAfterIncrement);
+    /**
+     * Returns this time shifted by the given number of days. A missing time is
+     * taken as the start of the day.
+     */
+    public CustomTime plusDays(long days) {
+        return this.plusMinutes(days * MINUTES_PER_DAY);
     }
 
-    public CustomTime plusDays(long minutes) {
-        LocalDateTime timeRepresentation = LocalDateTime.of(this.getDate(), this.getTime());
-        LocalDateTime timeRepresentationAfterIncrement = timeRepresentation.plusMinutes(minutes);
+    private long getEpochMinuteAtStartOfDay() {
+        if (this.hasTime()) {
+            return this._epochMinute;
+        }
+        return this._epochMinute - MINUTE_OF_DAY_MISSING;
+    }
 
-        return new CustomTime(timeRepresentationAfterIncrement);
+    private long getNanoOfMinuteAtStartOfDay() {
+        return this.hasTime() ? this._nanoOfMinute : 0;
     }
 }
@@ -13,6 +13,7 @@ public class ExecutionResult {
     private Object _data;
     private boolean _isShutdownSignal;
     private String _errorMessage;
+    private TaskListChange _change;
 
     public ExecutionResult(ViewType viewType, Object data, String error) {
         this._viewType = viewType;
@@ -66,4 +67,19 @@ public class ExecutionResult {
     public boolean hasErrorMessage() {
         return this._errorMessage != null;
     }
+
+    /**
+     * @return how the task list of this result differs from that of the previous result, or null if it is not known
+     */
+    public TaskListChange getChange() {
+        return this._change;
+    }
+
+    public void setChange(TaskListChange change) {
+        this._change = change;
+    }
+
+    public boolean hasChange() {
+        return this._change != null;
+    }
 }
@@ -28,7 +28,15 @@ public enum Message {
 
     MARK_SUCCESS("Marked task as completed! (undo-able)"),
     MARK_ALL_SUCCESS("Marked all tasks as completed! (undo-able)"),
-    MARK_FAIL("No valid tasks in range to mark as complete!");
+    MARK_FAIL("No valid tasks in range to mark as complete!"),
+
+    IMPORT_SUCCESS("Imported the tasks in %s! (undo-able)"),
+    IMPORT_EMPTY("Found no tasks to import!"),
+    IMPORT_FAIL("Could not import the file: %s"),
+    IMPORT_COLLISIONS("Imported tasks, but %d of them collide with other tasks!"),
+
+    EXPORT_SUCCESS("Exported all tasks to %s!"),
+    EXPORT_FAIL("Could not export to the file: %s");
 
     private final String messageString;
     Message(String msg) {
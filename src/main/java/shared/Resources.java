@@ -1,19 +1,29 @@
 package shared;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
 
 import exception.ExceptionHandler;
 import javafx.fxml.FXMLLoader;
+import javafx.fxml.JavaFXBuilderFactory;
 import javafx.scene.image.Image;
 import javafx.util.Pair;
 
 /**
+ * Templates are read from the classpath once and kept in memory, and all loaders share one builder factory, which
+ * caches the builders it looks up for each component class. This only saves the classpath lookup and the reading of
+ * the file: JavaFX nodes cannot be copied, and FXMLLoader cannot keep a parsed template, so every call still parses the
+ * template and builds a new component tree. Views that show many components from one template, such as TaskListItem,
+ * should reuse the components they have built instead of calling this again.
+ *
  * @@author A0127046L
  */
 public class Resources {
@@ -32,6 +42,8 @@ public class Resources {
      * Properties
      */
     private final ClassLoader _classLoader;
+    private final JavaFXBuilderFactory _builderFactory;
+    private final Map<String, byte[]> _templateCache;
 
     /**
      * Singleton class implementation
@@ -44,6 +56,8 @@ public class Resources {
 
     private Resources() {
         this._classLoader = this.getClass().getClassLoader();
+        this._builderFactory = new JavaFXBuilderFactory(this._classLoader);
+        this._templateCache = new ConcurrentHashMap<>();
     }
 
     /**
@@ -55,23 +69,25 @@ public class Resources {
      * @return null if template not found
      */
     public <T> T getComponent(String template) {
-        try {
-            FXMLLoader loader = new FXMLLoader();
-            loader.setLocation(getTemplateUrl(template));
-            return loader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+        Pair<T, Object> componentAndController = this.getComponentAndController(template);
+        return componentAndController == null ? null : componentAndController.getKey();
     }
 
     public <T, C> Pair<T, C> getComponentAndController(String template) {
+        URL templateUrl = getTemplateUrl(template);
+        if (templateUrl == null) {
+            return null;
+        }
+
         try {
+            byte[] templateData = this.getTemplateData(template, templateUrl);
+
             FXMLLoader loader = new FXMLLoader();
-            URL templateUrl = getTemplateUrl(template);
+            // The location is still needed to resolve the paths of stylesheets relative to the template
             loader.setLocation(templateUrl);
+            loader.setBuilderFactory(this._builderFactory);
 
-            T component = loader.load();
+            T component = loader.load(new ByteArrayInputStream(templateData));
             C controller = loader.getController();
 
             return new Pair<>(component, controller);
@@ -81,6 +97,22 @@ public class Resources {
         }
     }
 
+    /**
+     * Returns the contents of the template, reading it from the classpath the first time only.
+     */
+    private byte[] getTemplateData(String template, URL templateUrl) throws IOException {
+        byte[] templateData = this._templateCache.get(template);
+        if (templateData != null) {
+            return templateData;
+        }
+
+        try (InputStream stream = templateUrl.openStream()) {
+            templateData = IOUtils.toByteArray(stream);
+        }
+        this._templateCache.put(template, templateData);
+        return templateData;
+    }
+
     private URL getTemplateUrl(String template) {
         String fullPath = String.format("%s%s%s", STRING_PATH_TEMPLATES, template, STRING_EXTENSION_TEMPLATES);
         URL resourceUrl = this._classLoader.getResource(fullPath);
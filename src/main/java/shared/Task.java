@@ -28,6 +28,7 @@ public class Task implements Comparable<Task> {
     private Boolean _isCompleted;
     private Priority _priority;
     private boolean _isDeleted;
+    private TaskSortKey _sortKey;
 
     /**
      * Priority types
@@ -83,7 +84,8 @@ public class Task implements Comparable<Task> {
                 o._isDeleted);
     }
 
-    private Task(Integer id, String taskName, String description, LocalDateTime creationTime, CustomTime startTime,
+    // also used by TaskSnapshotCodec, which restores every attribute
+    Task(Integer id, String taskName, String description, LocalDateTime creationTime, CustomTime startTime,
             CustomTime endTime, boolean isCompleted, Priority priority, boolean isDeleted) {
         this._id = id;
         this._taskName = taskName;
@@ -94,6 +96,7 @@ public class Task implements Comparable<Task> {
         this._isCompleted = isCompleted;
         this._priority = priority;
         this._isDeleted = isDeleted;
+        this.updateSortKey();
     }
 
     @Override public Task clone() {
@@ -124,12 +127,14 @@ public class Task implements Comparable<Task> {
         // Convert the object to String
         String sanitised = attribute.toString();
 
-        // Detect presence of commas
-        if (sanitised.contains(Character.toString(DELIMITER_CSV))) {
+        // Detect presence of commas, or of line breaks, which would split the task across lines of the file
+        if (sanitised.indexOf(DELIMITER_CSV) >= 0 || sanitised.indexOf('\n') >= 0 || sanitised.indexOf('\r') >= 0) {
             // Sanitise backslashes
             sanitised = sanitised.replace("\\", "\\\\");
             // Sanitise quotes
             sanitised = sanitised.replace("\"", "\\\"");
+            // Sanitise line breaks
+            sanitised = sanitised.replace("\n", "\\n").replace("\r", "\\r");
             // Has space, wrap around quotes
             sanitised = String.format("\"%s\"", sanitised);
         }
@@ -143,7 +148,16 @@ public class Task implements Comparable<Task> {
                 .toArray(new String[] {});
     }
 
-    public static Task decodeTaskFromString(String line) {
+    /**
+     * Decodes a task from a line of the data file. Accepts any character sequence so
+     * that lines can be decoded straight from a file buffer without copying them
+     * into a String first.
+     *
+     * @param line
+     *            an encoded task, as produced by {@link #encodeTaskToString()}
+     * @return the decoded task
+     */
+    public static Task decodeTaskFromString(CharSequence line) {
         // Begin dynamic decoding
         List<String> taskValues = new ArrayList<>();
 
@@ -154,16 +168,13 @@ public class Task implements Comparable<Task> {
                 isDecodingSpecialValue = true;
                 continue;
             }
+            if (line.charAt(i) == '\\' && isDecodingSpecialValue) {
+                // Skip the escaped character, which may be a quote
+                i += 1;
+                continue;
+            }
             if (line.charAt(i) == '"' && isDecodingSpecialValue) {
-                // Fake quotes
-                if (i > 0 && line.charAt(i - 1) == '\\') {
-                    continue;
-                }
-
-                String specialValue = line.substring(begin + 1, i);
-                specialValue = specialValue.replace("\\\"", "\"");
-                specialValue = specialValue.replace("\\\\", "\\");
-                taskValues.add(specialValue);
+                taskValues.add(unescape(line.subSequence(begin + 1, i)));
 
                 begin = i + 2;
                 i += 1;
@@ -171,14 +182,14 @@ public class Task implements Comparable<Task> {
                 continue;
             }
             if (line.charAt(i) == DELIMITER_CSV && !isDecodingSpecialValue) {
-                String value = line.substring(begin, i);
+                String value = line.subSequence(begin, i).toString();
                 taskValues.add(value);
                 begin = i + 1;
             }
         }
         // Account for last leftover value
         if (begin < line.length() && begin >= 0) {
-            taskValues.add(line.substring(begin));
+            taskValues.add(line.subSequence(begin, line.length()).toString());
         }
 
         // Begin decoding values
@@ -199,6 +210,31 @@ public class Task implements Comparable<Task> {
         return new Task(id, taskName, description, creationTime, startTime, endTime, isCompleted, priority[0], false);
     }
 
+    /**
+     * Reverses the escaping of a quoted value, in a single pass so that an escaped
+     * backslash is never read as the start of another escape.
+     */
+    private static String unescape(CharSequence value) {
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                i += 1;
+                c = value.charAt(i);
+                if (c == 'n') {
+                    c = '\n';
+                } else if (c == 'r') {
+                    c = '\r';
+                } else if (c != '\\' && c != '"') {
+                    // Not an escape, so keep the backslash
+                    unescaped.append('\\');
+                }
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+
     @Override public int compareTo(Task o) {
         return this.getId().compareTo(o.getId());
     }
@@ -258,6 +294,19 @@ public class Task implements Comparable<Task> {
         return this._isDeleted;
     }
 
+    /**
+     * Returns the key that this Task is sorted on for display, which reflects
+     * the current completion status, start time, priority and end time.
+     */
+    public TaskSortKey getSortKey() {
+        return this._sortKey;
+    }
+
+    private void updateSortKey() {
+        this._sortKey = new TaskSortKey(this._isCompleted, this._startTime, this._priority, this._endTime,
+                this._creationTime);
+    }
+
     /**
      * Setters
      */
@@ -279,17 +328,21 @@ public class Task implements Comparable<Task> {
 
     public void setStartTime(CustomTime start) {
         this._startTime = start;
+        this.updateSortKey();
     }
 
     public void setEndTime(CustomTime end) {
         this._endTime = end;
+        this.updateSortKey();
     }
 
     public void setPriority(Priority priority) {
         this._priority = priority;
+        this.updateSortKey();
     }
 
     public void setCompleted(boolean isCompleted) {
         this._isCompleted = isCompleted;
+        this.updateSortKey();
     }
 }
@@ -0,0 +1,272 @@
+package shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The difference between two task lists shown to the user, as the tasks that were inserted, removed, moved and
+ * updated. Tasks are matched by ID, and a task with the same ID counts as updated when it is a different Task object,
+ * since Storage replaces a Task rather than changing it.
+ *
+ * Tasks at the start and end of both lists that are the same objects are skipped before anything else, so adding or
+ * changing one task in a long list costs little more than finding where it is. Of the remaining tasks found in both
+ * lists, the longest run that kept its order stays in place and only the rest are reported as moved.
+ *
+ * A task that is shown differently depending on the task before it, such as under a date heading, may also need to be
+ * shown again when it is not changed itself, so the unchanged tasks that now follow a different task are reported too.
+ *
+ * @@author A0127046L
+ */
+public class TaskListChange {
+
+    /**
+     * A task that was inserted, removed, moved or updated, with its index in the old and the new list. The old index
+     * of an inserted task and the new index of a removed task are -1.
+     */
+    public static class Entry {
+        private final int _taskId;
+        private final int _oldIndex;
+        private final int _newIndex;
+
+        private Entry(int taskId, int oldIndex, int newIndex) {
+            this._taskId = taskId;
+            this._oldIndex = oldIndex;
+            this._newIndex = newIndex;
+        }
+
+        public int getTaskId() {
+            return this._taskId;
+        }
+
+        public int getOldIndex() {
+            return this._oldIndex;
+        }
+
+        public int getNewIndex() {
+            return this._newIndex;
+        }
+    }
+
+    /**
+     * Properties
+     */
+    private final List<Task> _newList;
+    private final int _oldSize;
+    private final List<Entry> _inserted;
+    private final List<Entry> _removed;
+    private final List<Entry> _moved;
+    private final List<Entry> _updated;
+    private final List<Entry> _newlyPreceded;
+
+    private TaskListChange(List<Task> newList, int oldSize) {
+        this._newList = newList;
+        this._oldSize = oldSize;
+        this._inserted = new ArrayList<>();
+        this._removed = new ArrayList<>();
+        this._moved = new ArrayList<>();
+        this._updated = new ArrayList<>();
+        this._newlyPreceded = new ArrayList<>();
+    }
+
+    /**
+     * Finds the change that turns the old list into the new one.
+     *
+     * @param oldList the list shown before
+     * @param newList the list to be shown
+     */
+    public static TaskListChange between(List<Task> oldList, List<Task> newList) {
+        TaskListChange change = new TaskListChange(newList, oldList.size());
+
+        int oldSize = oldList.size();
+        int newSize = newList.size();
+
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && oldList.get(prefix) == newList.get(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && oldList.get(oldSize - 1 - suffix) == newList.get(newSize - 1 - suffix)) {
+            suffix++;
+        }
+        int oldEnd = oldSize - suffix;
+        int newEnd = newSize - suffix;
+        if (prefix == oldEnd && prefix == newEnd) {
+            return change;
+        }
+
+        Map<Integer, Integer> oldIndices = new HashMap<>();
+        for (int i = prefix; i < oldEnd; i++) {
+            oldIndices.put(oldList.get(i).getId(), i);
+        }
+
+        // Tasks found in both lists, as pairs of their new and old index, in the order of the new list
+        boolean[] isKept = new boolean[oldEnd - prefix];
+        int[] keptNewIndices = new int[Math.min(oldEnd, newEnd) - prefix];
+        int[] keptOldIndices = new int[keptNewIndices.length];
+        int keptCount = 0;
+        for (int j = prefix; j < newEnd; j++) {
+            Task task = newList.get(j);
+            Integer oldIndex = oldIndices.get(task.getId());
+            if (oldIndex == null) {
+                change._inserted.add(new Entry(task.getId(), -1, j));
+            } else {
+                isKept[oldIndex - prefix] = true;
+                keptNewIndices[keptCount] = j;
+                keptOldIndices[keptCount] = oldIndex;
+                keptCount++;
+            }
+        }
+        for (int i = prefix; i < oldEnd; i++) {
+            if (!isKept[i - prefix]) {
+                change._removed.add(new Entry(oldList.get(i).getId(), i, -1));
+            }
+        }
+
+        boolean[] isInPlace = findIncreasingRun(keptOldIndices, keptCount);
+        for (int k = 0; k < keptCount; k++) {
+            int oldIndex = keptOldIndices[k];
+            int newIndex = keptNewIndices[k];
+            int taskId = newList.get(newIndex).getId();
+            if (!isInPlace[k]) {
+                change._moved.add(new Entry(taskId, oldIndex, newIndex));
+            } else if (oldList.get(oldIndex) != newList.get(newIndex)) {
+                change._updated.add(new Entry(taskId, oldIndex, newIndex));
+            } else {
+                change.addIfNewlyPreceded(oldList, oldIndex, newIndex);
+            }
+        }
+        // The tasks after the first one of the common suffix follow the same tasks as before
+        if (newEnd < newSize) {
+            change.addIfNewlyPreceded(oldList, oldEnd, newEnd);
+        }
+        return change;
+    }
+
+    private void addIfNewlyPreceded(List<Task> oldList, int oldIndex, int newIndex) {
+        Task oldPrevious = oldIndex > 0 ? oldList.get(oldIndex - 1) : null;
+        Task newPrevious = newIndex > 0 ? this._newList.get(newIndex - 1) : null;
+        if (oldPrevious != newPrevious) {
+            this._newlyPreceded.add(new Entry(this._newList.get(newIndex).getId(), oldIndex, newIndex));
+        }
+    }
+
+    /**
+     * Marks a longest strictly increasing subsequence of the values, in O(n log n).
+     */
+    private static boolean[] findIncreasingRun(int[] values, int count) {
+        // tails[l] is the position of the smallest value ending an increasing run of length l + 1
+        int[] tails = new int[count];
+        int[] previous = new int[count];
+        int length = 0;
+        for (int k = 0; k < count; k++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[k]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[k] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = k;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] isInRun = new boolean[count];
+        for (int k = length > 0 ? tails[length - 1] : -1; k >= 0; k = previous[k]) {
+            isInRun[k] = true;
+        }
+        return isInRun;
+    }
+
+    /**
+     * Applies the change to a list holding one item for each task of the old list, turning it into one for each task
+     * of the new list. Removed and moved items are taken out first, from the back, and inserted and moved items are
+     * then put in from the front, so each index is correct at the time it is used.
+     *
+     * @param list the items for the old list
+     * @param toItem makes the item for a task of the new list, given its index in the new list
+     */
+    public <T> void applyTo(List<T> list, BiFunction<Integer, Task, T> toItem) {
+        assert list.size() == this._oldSize;
+
+        List<Entry> taken = new ArrayList<>(this._removed.size() + this._moved.size());
+        taken.addAll(this._removed);
+        taken.addAll(this._moved);
+        Collections.sort(taken, (a, b) -> Integer.compare(b.getOldIndex(), a.getOldIndex()));
+        for (Entry entry : taken) {
+            list.remove(entry.getOldIndex());
+        }
+
+        List<Entry> put = new ArrayList<>(this._inserted.size() + this._moved.size());
+        put.addAll(this._inserted);
+        put.addAll(this._moved);
+        Collections.sort(put, (a, b) -> Integer.compare(a.getNewIndex(), b.getNewIndex()));
+        for (Entry entry : put) {
+            int index = entry.getNewIndex();
+            list.add(index, toItem.apply(index, this._newList.get(index)));
+        }
+
+        for (Entry entry : this._updated) {
+            int index = entry.getNewIndex();
+            list.set(index, toItem.apply(index, this._newList.get(index)));
+        }
+    }
+
+    public List<Task> getNewList() {
+        return this._newList;
+    }
+
+    public int getOldSize() {
+        return this._oldSize;
+    }
+
+    public List<Entry> getInserted() {
+        return this._inserted;
+    }
+
+    public List<Entry> getRemoved() {
+        return this._removed;
+    }
+
+    public List<Entry> getMoved() {
+        return this._moved;
+    }
+
+    public List<Entry> getUpdated() {
+        return this._updated;
+    }
+
+    /**
+     * @return the tasks that are neither changed nor moved, but follow a different task than before, which are not
+     *         counted by size() as applyTo leaves them as they are
+     */
+    public List<Entry> getNewlyPreceded() {
+        return this._newlyPreceded;
+    }
+
+    /**
+     * @return the number of tasks inserted, removed, moved or updated
+     */
+    public int size() {
+        return this._inserted.size() + this._removed.size() + this._moved.size() + this._updated.size();
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override public String toString() {
+        return String.format("TaskListChange[inserted=%d, removed=%d, moved=%d, updated=%d]",
+                this._inserted.size(), this._removed.size(), this._moved.size(), this._updated.size());
+    }
+}
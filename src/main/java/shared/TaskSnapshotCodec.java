@@ -0,0 +1,288 @@
+package shared;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes Tasks to, and decodes them from, the binary snapshot format of the
+ * data file, which is an alternative to the CSV lines written by
+ * {@link Task#encodeTaskToString()}.
+ *
+ * A snapshot is a header followed by one fixed-width column per attribute, with
+ * a value for every Task in each column, and finally a heap holding the UTF-8
+ * bytes of all names and descriptions. The name and description columns hold
+ * offsets into the heap. Decoding therefore reads each attribute straight out of
+ * the buffer, without any splitting, unquoting or text parsing.
+ *
+ * The layout is, in big-endian order:
+ *
+ * <pre>
+ * int  magic, int version, int task count, int heap length
+ * int  id[]
+ * long creation epoch second (UTC)[], int creation nano[]
+ * byte flags[]
+ * long start epoch day[], long start nano of day[]
+ * long end epoch day[], long end nano of day[]
+ * byte priority value[]
+ * int  name offset[], int name length[]
+ * int  description offset[], int description length[]
+ * byte heap[]
+ * </pre>
+ *
+ * Days and nanos are 0 where the flags mark them as missing, and a string length
+ * of -1 stands for null.
+ *
+ * @@author A0127357B
+ */
+public class TaskSnapshotCodec {
+
+    /**
+     * Constants
+     */
+    private static final int MAGIC = 0x54445331; // "TDS1"
+    private static final int VERSION = 1;
+    private static final int BYTES_HEADER = 4 * Integer.BYTES;
+    private static final int BYTES_PER_TASK = Integer.BYTES + Long.BYTES + Integer.BYTES + 1 + 4 * Long.BYTES + 1
+            + 4 * Integer.BYTES;
+    private static final int LENGTH_NULL = -1;
+    private static final byte PRIORITY_NULL = -1;
+
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_HAS_START = 1 << 1;
+    private static final int FLAG_START_HAS_DATE = 1 << 2;
+    private static final int FLAG_START_HAS_TIME = 1 << 3;
+    private static final int FLAG_HAS_END = 1 << 4;
+    private static final int FLAG_END_HAS_DATE = 1 << 5;
+    private static final int FLAG_END_HAS_TIME = 1 << 6;
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. Encoding Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Encodes the Tasks into a snapshot.
+     *
+     * @return a buffer positioned at the start of the snapshot, ready to be
+     *         written out
+     */
+    public static ByteBuffer encode(List<Task> tasks) {
+        int count = tasks.size();
+        byte[][] names = new byte[count][];
+        byte[][] descriptions = new byte[count][];
+        int heapLength = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = toBytes(tasks.get(i).getTaskName());
+            descriptions[i] = toBytes(tasks.get(i).getDescription());
+            heapLength += lengthOf(names[i]) + lengthOf(descriptions[i]);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES_HEADER + count * BYTES_PER_TASK + heapLength);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(heapLength);
+
+        for (Task task : tasks) {
+            buffer.putInt(task.getId());
+        }
+        for (Task task : tasks) {
+            buffer.putLong(task.getCreationTime().toEpochSecond(ZoneOffset.UTC));
+        }
+        for (Task task : tasks) {
+            buffer.putInt(task.getCreationTime().getNano());
+        }
+        for (Task task : tasks) {
+            buffer.put(flagsOf(task));
+        }
+        putTimeColumns(buffer, tasks, true);
+        putTimeColumns(buffer, tasks, false);
+        for (Task task : tasks) {
+            buffer.put(task.getPriority() == null ? PRIORITY_NULL : (byte) task.getPriority().getPriorityValue());
+        }
+        putStringColumns(buffer, names, 0);
+        putStringColumns(buffer, descriptions, heapOffsetAfter(names));
+        for (int i = 0; i < count; i++) {
+            putBytes(buffer, names[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            putBytes(buffer, descriptions[i]);
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte flagsOf(Task task) {
+        int flags = task.isCompleted() ? FLAG_COMPLETED : 0;
+        CustomTime start = task.getStartTime();
+        if (start != null) {
+            flags |= FLAG_HAS_START;
+            flags |= start.hasDate() ? FLAG_START_HAS_DATE : 0;
+            flags |= start.hasTime() ? FLAG_START_HAS_TIME : 0;
+        }
+        CustomTime end = task.getEndTime();
+        if (end != null) {
+            flags |= FLAG_HAS_END;
+            flags |= end.hasDate() ? FLAG_END_HAS_DATE : 0;
+            flags |= end.hasTime() ? FLAG_END_HAS_TIME : 0;
+        }
+        return (byte) flags;
+    }
+
+    private static void putTimeColumns(ByteBuffer buffer, List<Task> tasks, boolean isStart) {
+        for (Task task : tasks) {
+            CustomTime time = isStart ? task.getStartTime() : task.getEndTime();
+            buffer.putLong(time != null && time.hasDate() ? time.getDate().toEpochDay() : 0);
+        }
+        for (Task task : tasks) {
+            CustomTime time = isStart ? task.getStartTime() : task.getEndTime();
+            buffer.putLong(time != null && time.hasTime() ? time.getTime().toNanoOfDay() : 0);
+        }
+    }
+
+    private static void putStringColumns(ByteBuffer buffer, byte[][] strings, int heapOffset) {
+        int offset = heapOffset;
+        for (byte[] string : strings) {
+            buffer.putInt(offset);
+            offset += lengthOf(string);
+        }
+        for (byte[] string : strings) {
+            buffer.putInt(string == null ? LENGTH_NULL : string.length);
+        }
+    }
+
+    private static int heapOffsetAfter(byte[][] strings) {
+        int offset = 0;
+        for (byte[] string : strings) {
+            offset += lengthOf(string);
+        }
+        return offset;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] string) {
+        if (string != null) {
+            buffer.put(string);
+        }
+    }
+
+    private static byte[] toBytes(String string) {
+        return string == null ? null : string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int lengthOf(byte[] string) {
+        return string == null ? 0 : string.length;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. Decoding Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Decodes the Tasks in a snapshot, starting at the buffer's position.
+     *
+     * @throws IOException
+     *             if the buffer does not hold a snapshot of a supported version
+     */
+    public static List<Task> decode(ByteBuffer buffer) throws IOException {
+        int base = buffer.position();
+        if (buffer.remaining() < BYTES_HEADER || buffer.getInt(base) != MAGIC) {
+            throw new IOException("Data file is not a task snapshot");
+        }
+        if (buffer.getInt(base + 4) != VERSION) {
+            throw new IOException("Unsupported task snapshot version " + buffer.getInt(base + 4));
+        }
+        int count = buffer.getInt(base + 8);
+        int heapLength = buffer.getInt(base + 12);
+        if (count < 0 || heapLength < 0
+                || buffer.remaining() < BYTES_HEADER + (long) count * BYTES_PER_TASK + heapLength) {
+            throw new IOException("Task snapshot is truncated");
+        }
+
+        // Start of each column
+        int ids = base + BYTES_HEADER;
+        int creationSeconds = ids + count * Integer.BYTES;
+        int creationNanos = creationSeconds + count * Long.BYTES;
+        int flags = creationNanos + count * Integer.BYTES;
+        int startDays = flags + count;
+        int startNanos = startDays + count * Long.BYTES;
+        int endDays = startNanos + count * Long.BYTES;
+        int endNanos = endDays + count * Long.BYTES;
+        int priorities = endNanos + count * Long.BYTES;
+        int nameOffsets = priorities + count;
+        int nameLengths = nameOffsets + count * Integer.BYTES;
+        int descriptionOffsets = nameLengths + count * Integer.BYTES;
+        int descriptionLengths = descriptionOffsets + count * Integer.BYTES;
+        int heapStart = descriptionLengths + count * Integer.BYTES;
+
+        byte[] heap = new byte[heapLength];
+        ByteBuffer heapView = buffer.duplicate();
+        heapView.position(heapStart);
+        heapView.get(heap);
+
+        Task.Priority[] prioritiesByValue = new Task.Priority[Task.Priority.values().length];
+        for (Task.Priority priority : Task.Priority.values()) {
+            prioritiesByValue[priority.getPriorityValue()] = priority;
+        }
+
+        List<Task> tasks = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                int taskFlags = buffer.get(flags + i);
+                LocalDateTime creationTime = LocalDateTime.ofEpochSecond(
+                        buffer.getLong(creationSeconds + i * Long.BYTES),
+                        buffer.getInt(creationNanos + i * Integer.BYTES),
+                        ZoneOffset.UTC);
+                CustomTime startTime = timeOf(taskFlags, FLAG_HAS_START, FLAG_START_HAS_DATE, FLAG_START_HAS_TIME,
+                        buffer.getLong(startDays + i * Long.BYTES), buffer.getLong(startNanos + i * Long.BYTES));
+                CustomTime endTime = timeOf(taskFlags, FLAG_HAS_END, FLAG_END_HAS_DATE, FLAG_END_HAS_TIME,
+                        buffer.getLong(endDays + i * Long.BYTES), buffer.getLong(endNanos + i * Long.BYTES));
+
+                // Unknown priorities fall back to LOW, as in decodeTaskFromString
+                int priorityValue = buffer.get(priorities + i);
+                Task.Priority priority = priorityValue == PRIORITY_NULL ? null
+                        : priorityValue >= 0 && priorityValue < prioritiesByValue.length
+                                ? prioritiesByValue[priorityValue] : Task.Priority.LOW;
+
+                String name = stringOf(heap, buffer.getInt(nameOffsets + i * Integer.BYTES),
+                        buffer.getInt(nameLengths + i * Integer.BYTES));
+                String description = stringOf(heap, buffer.getInt(descriptionOffsets + i * Integer.BYTES),
+                        buffer.getInt(descriptionLengths + i * Integer.BYTES));
+
+                tasks.add(new Task(buffer.getInt(ids + i * Integer.BYTES), name, description, creationTime, startTime,
+                        endTime, (taskFlags & FLAG_COMPLETED) != 0, priority, false));
+            }
+        } catch (DateTimeException e) {
+            throw new IOException("Task snapshot has a corrupt time", e);
+        }
+        return tasks;
+    }
+
+    private static CustomTime timeOf(int flags, int hasTimeFlag, int hasDateFlag, int hasTimeOfDayFlag,
+                                     long epochDay, long nanoOfDay) {
+        if ((flags & hasTimeFlag) == 0) {
+            return null;
+        }
+        LocalDate date = (flags & hasDateFlag) != 0 ? LocalDate.ofEpochDay(epochDay) : null;
+        LocalTime time = (flags & hasTimeOfDayFlag) != 0 ? LocalTime.ofNanoOfDay(nanoOfDay) : null;
+        return new CustomTime(date, time);
+    }
+
+    private static String stringOf(byte[] heap, int offset, int length) throws IOException {
+        if (length == LENGTH_NULL) {
+            return null;
+        }
+        if (offset < 0 || length < 0 || offset + length > heap.length) {
+            throw new IOException("Task snapshot has a corrupt string heap");
+        }
+        return new String(heap, offset, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package shared;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Primitive form of the fields that Tasks are sorted on for display, so that
+ * comparing two Tasks involves no boxing, null checks or allocation.
+ *
+ * The key orders Tasks by completion (incomplete first), start time (missing
+ * last), priority (highest first), end time (missing last) and finally creation
+ * time. Dates are stored as epoch days offset to be non-negative, which leaves
+ * room to pack the completion flag and the priority into the same long as the
+ * start and end date respectively. Missing dates and times within a CustomTime
+ * are treated as LocalDate.MAX and LocalTime.MAX, as in CustomTime.compareTo.
+ *
+ * Keys are immutable; Task computes a new one whenever one of these fields
+ * changes.
+ *
+ * @@author A0127357B
+ */
+public final class TaskSortKey implements Comparable<TaskSortKey> {
+
+    /**
+     * Constants
+     */
+    private static final long OFFSET_EPOCH_DAY = 1L << 39;
+    private static final long KEY_DAY_MISSING = 1L << 40;
+    private static final int SHIFT_FLAGS = 41;
+    private static final int PRIORITY_HIGHEST = Task.Priority.HIGH.ordinal();
+
+    /**
+     * Properties
+     */
+    private final long _completionAndStartDay;
+    private final long _startTimeOfDay;
+    private final long _priorityAndEndDay;
+    private final long _endTimeOfDay;
+    private final long _creationSecond;
+    private final int _creationNano;
+
+    public TaskSortKey(boolean isCompleted, CustomTime startTime, Task.Priority priority, CustomTime endTime,
+            LocalDateTime creationTime) {
+        long completionFlag = isCompleted ? 1 : 0;
+        // Higher priorities come first
+        long priorityFlag = PRIORITY_HIGHEST - (priority == null ? Task.Priority.NULL : priority).ordinal();
+
+        this._completionAndStartDay = (completionFlag << SHIFT_FLAGS) | dayKeyOf(startTime);
+        this._startTimeOfDay = timeKeyOf(startTime);
+        this._priorityAndEndDay = (priorityFlag << SHIFT_FLAGS) | dayKeyOf(endTime);
+        this._endTimeOfDay = timeKeyOf(endTime);
+        this._creationSecond = creationTime.toEpochSecond(ZoneOffset.UTC);
+        this._creationNano = creationTime.getNano();
+    }
+
+    private static long dayKeyOf(CustomTime time) {
+        if (time == null) {
+            return KEY_DAY_MISSING;
+        }
+        LocalDate date = time.hasDate() ? time.getDate() : LocalDate.MAX;
+        return date.toEpochDay() + OFFSET_EPOCH_DAY;
+    }
+
+    private static long timeKeyOf(CustomTime time) {
+        if (time == null) {
+            return 0;
+        }
+        LocalTime timeOfDay = time.hasTime() ? time.getTime() : LocalTime.MAX;
+        return timeOfDay.toNanoOfDay();
+    }
+
+    @Override public int compareTo(TaskSortKey key) {
+        int comparison = Long.compare(this._completionAndStartDay, key._completionAndStartDay);
+        if (comparison != 0) return comparison;
+
+        comparison = Long.compare(this._startTimeOfDay, key._startTimeOfDay);
+        if (comparison != 0) return comparison;
+
+        comparison = Long.compare(this._priorityAndEndDay, key._priorityAndEndDay);
+        if (comparison != 0) return comparison;
+
+        comparison = Long.compare(this._endTimeOfDay, key._endTimeOfDay);
+        if (comparison != 0) return comparison;
+
+        comparison = Long.compare(this._creationSecond, key._creationSecond);
+        if (comparison != 0) return comparison;
+
+        return Integer.compare(this._creationNano, key._creationNano);
+    }
+}
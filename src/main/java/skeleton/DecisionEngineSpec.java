@@ -1,5 +1,7 @@
 package skeleton;
 
+import java.util.List;
+
 import shared.Command;
 import shared.ExecutionResult;
 import shared.Task;
@@ -15,6 +17,8 @@ public interface DecisionEngineSpec {
 
     ExecutionResult performCommand(Command cmd);
 
+    ExecutionResult performBatch(List<Command> cmds); // executes write commands as one undoable operation
+
     void shutdown();
 
 }
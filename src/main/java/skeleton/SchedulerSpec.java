@@ -15,4 +15,6 @@ public interface SchedulerSpec {
     public TemporalRange schedule(Integer durationInMinutes);
 
     public boolean isColliding(Task task);
+
+    public List<Task> findCollidingTasks(List<Task> tasks); // colliding tasks among those to insert in bulk
 }
@@ -1,7 +1,9 @@
 package skeleton;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * @@author A0127046L
@@ -12,6 +14,8 @@ public interface StorageSpec<T> {
 
     int save(T item);
 
+    int[] saveAll(List<T> newItems);
+
     T remove(int index);
 
     T get(int index);
@@ -22,5 +26,17 @@ public interface StorageSpec<T> {
 
     List<T> getAll();
 
+    Iterator<T> iterateAll();
+
+    List<T> getAllInDisplayOrder();
+
+    List<T> getSearchCandidates(String[] queryWords);
+
+    int compactTombstones(Supplier<Set<Integer>> referencedIds);
+
+    void beginBatch();
+
+    void endBatch();
+
     void shutdown();
 }
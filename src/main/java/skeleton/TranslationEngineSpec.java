@@ -3,6 +3,7 @@ package skeleton;
 import shared.Command;
 import shared.ExecutionResult;
 
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 /**
@@ -14,11 +15,13 @@ public interface TranslationEngineSpec {
 
     CommandParserSpec getCommandParser();
 
-    void setCommandExecutionHandler(Function<Command, ExecutionResult> handler);
+    void setCommandExecutionHandler(Function<Command, Future<ExecutionResult>> handler);
 
     void initialise();
 
     void displayResult(ExecutionResult result);
 
+    void displayResult(ExecutionResult result, Command command);
+
     void shutdown();
 }
@@ -56,4 +56,11 @@ public interface UserInterfaceSpec {
     void cleanUp();
 
     void setHeaderTitle(String title);
+
+    /***
+     * Shows or hides the indicator that commands are still being executed.
+     *
+     * @param isBusy true while there are commands whose results have not been displayed yet
+     */
+    void setBusy(boolean isBusy);
 }
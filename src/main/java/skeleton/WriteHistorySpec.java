@@ -1,5 +1,7 @@
 package skeleton;
 
+import java.util.Set;
+
 import logic.StorageWriteOperation;
 
 /**
@@ -18,4 +20,6 @@ public interface WriteHistorySpec {
 
     public boolean redo(); // returns whether redo succeeded
 
+    public Set<Integer> getReferencedTaskIds(); // ids of tasks that undo/redo may still restore
+
 }
@@ -0,0 +1,113 @@
+package storage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import exception.ExceptionHandler;
+
+/**
+ * Runs the saves of Storage on a dedicated background thread, so that writing
+ * to disk never blocks the thread that modifies the tasks.
+ *
+ * Save requests are coalesced: the first request schedules a save after the
+ * autosave delay, and any further requests made before that save starts are
+ * served by it. All saves run on the same thread, one after another, so the
+ * files on disk are only ever written by one save at a time.
+ *
+ * The thread is not a daemon, so the final save queued on shutdown completes
+ * even when the application exits straight afterwards.
+ *
+ * @@author A0127357B
+ */
+public class AutosaveWriter {
+
+    /**
+     * Constants
+     */
+    private static final String NAME_THREAD = "autosave";
+
+    /**
+     * Properties
+     */
+    private ScheduledThreadPoolExecutor _executor;
+    private Runnable _save;
+    private long _delayInMillis;
+    private AtomicBoolean _isSaveScheduled;
+
+    /**
+     * @param save
+     *            the save to run, which takes whatever it needs to write from
+     *            Storage when it starts
+     * @param delayInMillis
+     *            how long changes may wait before they are saved
+     */
+    public AutosaveWriter(Runnable save, long delayInMillis) {
+        this._save = save;
+        this._delayInMillis = delayInMillis;
+        this._isSaveScheduled = new AtomicBoolean(false);
+        this._executor = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, NAME_THREAD));
+        // Pending autosaves are superseded by the final save on shutdown
+        this._executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Schedules a save after the autosave delay, unless one is already pending.
+     */
+    public void requestSave() {
+        if (this._executor.isShutdown()) {
+            return;
+        }
+        if (this._isSaveScheduled.compareAndSet(false, true)) {
+            try {
+                this._executor.schedule(this::runScheduledSave, this._delayInMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shut down since the check above, so the final save is already queued
+            }
+        }
+    }
+
+    /**
+     * Saves straight away, after any save that is already running. Once shut
+     * down, the final save takes the place of the flush.
+     *
+     * @return a future that completes once the save has been written
+     */
+    public Future<?> flush() {
+        try {
+            return this._executor.submit(() -> runSafely(this._save));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Runs the given final save after any save that is already running, and
+     * then stops the thread. Saves requested afterwards are ignored.
+     *
+     * @return a future that completes once the final save has been written
+     */
+    public Future<?> shutdown(Runnable finalSave) {
+        Future<?> finalSaveFuture = this._executor.submit(() -> runSafely(finalSave));
+        this._executor.shutdown();
+        return finalSaveFuture;
+    }
+
+    private void runScheduledSave() {
+        // Cleared first, so that changes made during this save get another one
+        this._isSaveScheduled.set(false);
+        runSafely(this._save);
+    }
+
+    private static void runSafely(Runnable save) {
+        try {
+            save.run();
+        } catch (RuntimeException e) {
+            // Keep the thread alive for the next save
+            ExceptionHandler.handle(e);
+        }
+    }
+}
@@ -3,11 +3,21 @@ package storage;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 import exception.ExceptionHandler;
 import shared.ApplicationContext;
@@ -26,6 +36,13 @@ public class DiskIO {
         return instance;
     }
 
+    private static final String STRING_EXTENSION_JOURNAL = ".journal";
+    private static final String STRING_EXTENSION_SNAPSHOT = ".bin";
+    private static final String STRING_EXTENSION_TEMPORARY = ".tmp";
+    private static final String STRING_EXTENSION_UNREADABLE = ".unreadable";
+    // Also the charset MappedLineReader decodes the data file with
+    private static final Charset CHARSET_DATA = StandardCharsets.UTF_8;
+
     private String _fileName;
     private UserPreferences _userPreferences;
 
@@ -49,6 +66,18 @@ public class DiskIO {
         createDirectory();
     }
 
+    public String getJournalFileName() {
+        return this._fileName + STRING_EXTENSION_JOURNAL;
+    }
+
+    public String getSnapshotFileName() {
+        return this._fileName + STRING_EXTENSION_SNAPSHOT;
+    }
+
+    public UserPreferences.DataFormat getDataFormat() {
+        return this._userPreferences.getDataFormat();
+    }
+
     public void createDirectory() {
         // Try to create directory
         File folder = new File(this._fileName).getParentFile();
@@ -60,32 +89,219 @@ public class DiskIO {
         this.checkFileExists();
         ArrayList<String> taskStrings = new ArrayList<String>();
 
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(this._fileName));
-
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(this._fileName), CHARSET_DATA)) {
             String currLine;
             while ((currLine = reader.readLine()) != null) {
                 taskStrings.add(currLine);
             }
-            reader.close();
         } catch (IOException e) {
             ExceptionHandler.handle(e);
         }
         return taskStrings;
     }
 
-    public List<String> write(List<String> taskStrings) {
+    /**
+     * Converts every line of the data file using the mapper, spreading the work
+     * over as many threads as the user preferences allow. The results are in the
+     * same order as the lines in the file.
+     *
+     * @param mapper
+     *            the conversion applied to each line, which may run on any thread
+     * @throws IOException
+     *             if the data file cannot be read, or a line fails to be converted
+     */
+    public <T> List<T> mapLinesInParallel(Function<CharSequence, T> mapper) throws IOException {
+        // Create file if it does not already exist
+        this.checkFileExists();
+
+        ForkJoinPool pool = new ForkJoinPool(this._userPreferences.getStartupParallelism());
         try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(this._fileName));
-            for (String taskString : taskStrings) {
-                writer.write(taskString);
+            return MappedLineReader.mapLinesInParallel(this._fileName, mapper, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Replaces the data file with the given lines. The lines are written to a
+     * temporary file first, which then takes the place of the data file, so that
+     * the data file is never left half-written.
+     *
+     * @return whether the data file was replaced
+     */
+    public boolean write(List<String> taskStrings) {
+        String temporaryFileName = this._fileName + STRING_EXTENSION_TEMPORARY;
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(temporaryFileName), CHARSET_DATA)) {
+                for (String taskString : taskStrings) {
+                    writer.write(taskString);
+                    writer.newLine();
+                }
+            }
+            replaceFile(temporaryFileName, this._fileName);
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+            return false;
+        }
+        // The data file is now the most recent copy of the data
+        new File(this.getSnapshotFileName()).delete();
+        return true;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // Snapshot Methods
+    //
+    // ----------------------------------------------------------------------------------------
+    // Snapshots hold the data in the binary format of TaskSnapshotCodec. Only one
+    // of the snapshot and the data file is kept, so that switching format
+    // migrates the data on the next write.
+
+    public boolean hasSnapshot() {
+        return new File(this.getSnapshotFileName()).exists();
+    }
+
+    /**
+     * Reads the snapshot into memory. It is read into a heap buffer rather than
+     * mapped, as a mapping would keep the file open until it is garbage
+     * collected, and on some platforms stop it from being replaced.
+     *
+     * @return the contents of the snapshot
+     * @throws IOException
+     *             if the snapshot cannot be read
+     */
+    public ByteBuffer readSnapshot() throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(Paths.get(this.getSnapshotFileName())));
+    }
+
+    /**
+     * Renames a snapshot that cannot be decoded, so that the data file is read
+     * in its place and the next write does not replace what is left of it.
+     */
+    public void setAsideSnapshot() {
+        setAside(this.getSnapshotFileName());
+    }
+
+    /**
+     * Replaces the snapshot, through a temporary file in the same way as
+     * {@link #write(List)}.
+     *
+     * @return whether the snapshot was replaced
+     */
+    public boolean writeSnapshot(ByteBuffer snapshot) {
+        String temporaryFileName = this.getSnapshotFileName() + STRING_EXTENSION_TEMPORARY;
+        try {
+            try (FileChannel channel = new RandomAccessFile(temporaryFileName, "rw").getChannel()) {
+                channel.truncate(0);
+                while (snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+            }
+            replaceFile(temporaryFileName, this.getSnapshotFileName());
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+            return false;
+        }
+        // The snapshot is now the most recent copy of the data
+        new File(this._fileName).delete();
+        return true;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // Journal Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    public ArrayList<String> readJournal() {
+        ArrayList<String> records = new ArrayList<String>();
+        File journal = new File(this.getJournalFileName());
+        if (!journal.exists()) {
+            return records;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), CHARSET_DATA)) {
+            String currLine;
+            while ((currLine = reader.readLine()) != null) {
+                records.add(currLine);
+            }
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+        }
+        return records;
+    }
+
+    /**
+     * Appends the records to the journal. If they cannot all be written, the
+     * journal is cut back to its previous length, so that a partly written
+     * record is not left in front of the next records appended.
+     *
+     * @return whether the records were appended
+     */
+    public boolean appendJournal(List<String> records) {
+        File journal = new File(this.getJournalFileName());
+        long previousLength = journal.length();
+        try (BufferedWriter writer = Files.newBufferedWriter(journal.toPath(), CHARSET_DATA,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String record : records) {
+                writer.write(record);
                 writer.newLine();
             }
-            writer.close();
+            return true;
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+            truncateFile(journal, previousLength);
+            return false;
+        }
+    }
+
+    /**
+     * @return whether there is no journal left
+     */
+    public boolean clearJournal() {
+        File journal = new File(this.getJournalFileName());
+        return !journal.exists() || journal.delete();
+    }
+
+    /**
+     * Renames a data file that cannot be decoded, together with the journal of
+     * changes made to it, so that the next write starts a new data file instead
+     * of replacing the tasks that could not be read.
+     */
+    public void setAsideDataFile() {
+        setAside(this._fileName);
+        if (new File(this.getJournalFileName()).exists()) {
+            setAside(this.getJournalFileName());
+        }
+    }
+
+    private static void setAside(String fileName) {
+        try {
+            Files.move(Paths.get(fileName), Paths.get(fileName + STRING_EXTENSION_UNREADABLE),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+        }
+    }
+
+    private static void replaceFile(String source, String target) throws IOException {
+        try {
+            Files.move(Paths.get(source), Paths.get(target), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(Paths.get(source), Paths.get(target), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void truncateFile(File file, long length) {
+        if (!file.isFile() || file.length() <= length) {
+            return;
+        }
+        try (FileChannel channel = new RandomAccessFile(file, "rw").getChannel()) {
+            channel.truncate(length);
         } catch (IOException e) {
             ExceptionHandler.handle(e);
         }
-        return taskStrings;
     }
 
     private File checkFileExists() {
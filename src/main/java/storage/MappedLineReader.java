@@ -0,0 +1,210 @@
+package storage;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a text file line by line through a memory mapping of the file, without
+ * materialising the lines as a list of Strings.
+ *
+ * Each line is decoded into a single reusable character buffer that is handed to
+ * the mapper as a CharSequence. The sequence is only valid for the duration of
+ * the call, so mappers must copy whatever they wish to keep.
+ *
+ * As with the snapshot, which is read into the heap instead, nothing is unmapped
+ * by hand: releasing a mapping that may still be read crashes the JVM. The
+ * mapping is released once it is garbage collected. Until then, some platforms
+ * refuse to replace the file, in which case the save fails and is retried with
+ * the journal kept.
+ *
+ * @@author A0127357B
+ */
+public class MappedLineReader {
+
+    /**
+     * Constants
+     */
+    private static final byte CHAR_LINE_FEED = '\n';
+    private static final byte CHAR_CARRIAGE_RETURN = '\r';
+    private static final int SIZE_LINE_BUFFER_INITIAL = 256;
+    private static final int SIZE_CHUNK_MIN = 64 * 1024;
+
+    /**
+     * Properties
+     */
+    private final CharsetDecoder _decoder;
+    private CharBuffer _lineBuffer;
+
+    public MappedLineReader() {
+        this._decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this._lineBuffer = CharBuffer.allocate(SIZE_LINE_BUFFER_INITIAL);
+    }
+
+    /**
+     * Maps the given file and converts every line in it using the mapper, splitting
+     * the file into chunks that are converted in parallel on the given pool. The
+     * results are returned in the same order as the lines in the file.
+     *
+     * @param fileName
+     *            the file to read
+     * @param mapper
+     *            the conversion applied to each line; it must not keep a
+     *            reference to the line itself
+     * @param pool
+     *            the pool on which the chunks are converted
+     * @throws IOException
+     *             if the file cannot be mapped, or a chunk fails to be converted
+     */
+    public static <T> List<T> mapLinesInParallel(String fileName, Function<CharSequence, T> mapper,
+            ForkJoinPool pool) throws IOException {
+        List<T> results = new ArrayList<>();
+
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r");
+             FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long windowSize = Math.min(Integer.MAX_VALUE, size - position);
+                boolean isLastWindow = position + windowSize == size;
+
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                int end = isLastWindow ? window.limit() : lastLineBoundary(window, window.limit());
+                if (end == 0) {
+                    throw new IOException("Line too long to be mapped in " + fileName);
+                }
+
+                List<ForkJoinTask<List<T>>> chunkTasks = split(window, end, pool.getParallelism()).stream()
+                        .map(chunk -> pool.submit(() -> new MappedLineReader().mapLines(chunk, mapper)))
+                        .collect(Collectors.toList());
+                // Every chunk is waited for, even after one has failed, so that
+                // none is still reading the file once this returns
+                chunkTasks.forEach(ForkJoinTask::quietlyJoin);
+
+                for (ForkJoinTask<List<T>> chunkTask : chunkTasks) {
+                    if (chunkTask.isCompletedAbnormally()) {
+                        throw new IOException(chunkTask.getException());
+                    }
+                    results.addAll(chunkTask.getRawResult());
+                }
+                position += end;
+            }
+        }
+        return results;
+    }
+
+    private <T> List<T> mapLines(ByteBuffer chunk, Function<CharSequence, T> mapper) {
+        List<T> results = new ArrayList<>();
+        this.forEachLineIn(chunk, true, line -> results.add(mapper.apply(line)));
+        return results;
+    }
+
+    /**
+     * Splits the first <code>end</code> bytes of the buffer into at most
+     * <code>count</code> chunks, each ending at a line boundary.
+     */
+    static List<ByteBuffer> split(ByteBuffer buffer, int end, int count) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int chunkCount = Math.max(1, Math.min(count, end / SIZE_CHUNK_MIN));
+        int targetSize = end / chunkCount;
+        int chunkStart = 0;
+
+        while (chunkStart < end) {
+            int chunkEnd = end;
+            if (chunks.size() < chunkCount - 1) {
+                // Extend the chunk to the end of the line it stops in
+                chunkEnd = Math.min(end, chunkStart + targetSize);
+                while (chunkEnd < end && buffer.get(chunkEnd - 1) != CHAR_LINE_FEED) {
+                    chunkEnd++;
+                }
+            }
+
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(chunkEnd);
+            chunk.position(chunkStart);
+            chunks.add(chunk.slice());
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the position just after the last line feed before <code>end</code>,
+     * or 0 if there is none.
+     */
+    private static int lastLineBoundary(ByteBuffer buffer, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buffer.get(i) == CHAR_LINE_FEED) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Calls the consumer for every complete line in the buffer.
+     *
+     * @return the number of bytes consumed, which stops at the last line feed
+     *         unless this is the last part of the file
+     */
+    int forEachLineIn(ByteBuffer buffer, boolean isEndOfFile, Consumer<CharSequence> consumer) {
+        int begin = buffer.position();
+        int limit = buffer.limit();
+        int lineStart = begin;
+
+        for (int i = begin; i < limit; i++) {
+            if (buffer.get(i) == CHAR_LINE_FEED) {
+                consumer.accept(this.decode(buffer, lineStart, i));
+                lineStart = i + 1;
+            }
+        }
+
+        // Account for the last line, which may not be terminated
+        if (isEndOfFile && lineStart < limit) {
+            consumer.accept(this.decode(buffer, lineStart, limit));
+            lineStart = limit;
+        }
+        return lineStart - begin;
+    }
+
+    private CharSequence decode(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == CHAR_CARRIAGE_RETURN) {
+            end--;
+        }
+
+        ByteBuffer line = buffer.duplicate();
+        line.limit(end);
+        line.position(start);
+
+        // UTF-8 never decodes to more chars than it has bytes
+        if (this._lineBuffer.capacity() < end - start) {
+            this._lineBuffer = CharBuffer.allocate(Math.max(end - start, this._lineBuffer.capacity() * 2));
+        }
+        this._lineBuffer.clear();
+        this._decoder.reset();
+
+        CoderResult result = this._decoder.decode(line, this._lineBuffer, true);
+        assert !result.isOverflow();
+        this._decoder.flush(this._lineBuffer);
+
+        this._lineBuffer.flip();
+        return this._lineBuffer;
+    }
+}
@@ -0,0 +1,137 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import shared.Task;
+
+/**
+ * Immutable sorted map from Task ID to Task, implemented as a PersistentTree
+ * of the Tasks in order of ID.
+ *
+ * Writes return a new map that shares all untouched subtrees with the old one,
+ * so a write costs O(log n) and every map ever handed out stays valid and
+ * unchanged. Storage publishes its current map through a volatile field, which
+ * lets any thread read a consistent snapshot of all Tasks without locking and
+ * without copying.
+ *
+ * @@author A0127357B
+ */
+public final class PersistentTaskMap {
+
+    /**
+     * Constants
+     */
+    public static final PersistentTaskMap EMPTY = new PersistentTaskMap(null);
+
+    /**
+     * Properties
+     */
+    private final PersistentTree.Node<Task> _root;
+
+    private PersistentTaskMap(PersistentTree.Node<Task> root) {
+        this._root = root;
+    }
+
+    /**
+     * Builds a map from Tasks that are already sorted by ID, in linear time.
+     *
+     * @param tasks
+     *            Tasks in strictly increasing order of ID
+     */
+    public static PersistentTaskMap fromSorted(List<Task> tasks) {
+        return new PersistentTaskMap(PersistentTree.fromSorted(tasks));
+    }
+
+    private static ToIntFunction<Task> byId(int id) {
+        return task -> Integer.compare(id, task.getId());
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. Read Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    public Task get(int id) {
+        return PersistentTree.find(this._root, byId(id));
+    }
+
+    public List<Task> values() {
+        return this.filterValues(task -> true);
+    }
+
+    public boolean containsKey(int id) {
+        return this.get(id) != null;
+    }
+
+    public int size() {
+        return PersistentTree.sizeOf(this._root);
+    }
+
+    public boolean isEmpty() {
+        return this._root == null;
+    }
+
+    /**
+     * Returns the highest ID in the map, which must not be empty.
+     */
+    public int lastKey() {
+        return PersistentTree.last(this._root).getId();
+    }
+
+    /**
+     * Passes each Task to the action, in order of ID.
+     */
+    public void forEach(Consumer<Task> action) {
+        PersistentTree.forEach(this._root, action);
+    }
+
+    /**
+     * Returns an iterator over the Tasks, in order of ID, in constant extra
+     * memory.
+     */
+    public Iterator<Task> iterator() {
+        return PersistentTree.iterator(this._root);
+    }
+
+    /**
+     * Returns the Tasks that match the filter, in order of ID.
+     */
+    public List<Task> filterValues(Predicate<Task> filter) {
+        List<Task> values = new ArrayList<>(this.size());
+        this.forEach(task -> {
+            if (filter.test(task)) {
+                values.add(task);
+            }
+        });
+        return values;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. Write Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Returns a map with the given Task mapped to the ID, in place of any Task
+     * it was previously mapped to.
+     */
+    public PersistentTaskMap put(int id, Task task) {
+        assert task.getId() == id;
+        return new PersistentTaskMap(PersistentTree.put(this._root, task, byId(id)));
+    }
+
+    /**
+     * Returns a map without the given ID, or this map if it does not contain it.
+     */
+    public PersistentTaskMap remove(int id) {
+        PersistentTree.Node<Task> root = PersistentTree.remove(this._root, byId(id));
+        return root == this._root ? this : new PersistentTaskMap(root);
+    }
+}
@@ -0,0 +1,257 @@
+package storage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * The nodes of a persistent AVL tree, and the operations on them, shared by
+ * PersistentTaskMap and TaskOrderIndex.
+ *
+ * Nodes are never changed once built. A write returns a new root that shares
+ * all untouched subtrees with the old one, so it costs O(log n), and every root
+ * ever handed out still describes the tree as it was. Each node also counts the
+ * nodes below it, so that values can be looked up by their position in order.
+ *
+ * Values are found through a target, which compares the value looked for with
+ * the value of a node, in the same way as a Comparator with the value looked
+ * for as its first argument.
+ *
+ * @@author A0127357B
+ */
+final class PersistentTree {
+
+    static final class Node<T> {
+        final T value;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+        final int size;
+
+        Node(T value, Node<T> left, Node<T> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+            this.size = sizeOf(left) + sizeOf(right) + 1;
+        }
+    }
+
+    private PersistentTree() {
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. Read Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * @return the value matching the target, or null if there is none
+     */
+    static <T> T find(Node<T> node, ToIntFunction<? super T> target) {
+        while (node != null) {
+            int comparison = target.applyAsInt(node.value);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the value at the given position in order, which must be within
+     *         the tree
+     */
+    static <T> T getAt(Node<T> node, int index) {
+        assert index >= 0 && index < sizeOf(node);
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * @return the last value in order, of a tree that must not be empty
+     */
+    static <T> T last(Node<T> node) {
+        assert node != null;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.value;
+    }
+
+    /**
+     * Passes each value to the action, in order.
+     */
+    static <T> void forEach(Node<T> node, Consumer<? super T> action) {
+        if (node == null) {
+            return;
+        }
+        forEach(node.left, action);
+        action.accept(node.value);
+        forEach(node.right, action);
+    }
+
+    /**
+     * Returns an iterator over the values in order. Values are visited one at a
+     * time, holding on to no more than the path down the tree, so that even very
+     * large trees can be walked in constant extra memory.
+     */
+    static <T> Iterator<T> iterator(Node<T> root) {
+        return new Iterator<T>() {
+            // Nodes whose value and right subtree are still to be visited
+            private final Deque<Node<T>> _path = new ArrayDeque<>();
+
+            {
+                this.pushLeftPath(root);
+            }
+
+            private void pushLeftPath(Node<T> node) {
+                while (node != null) {
+                    this._path.push(node);
+                    node = node.left;
+                }
+            }
+
+            @Override public boolean hasNext() {
+                return !this._path.isEmpty();
+            }
+
+            @Override public T next() {
+                if (this._path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = this._path.pop();
+                this.pushLeftPath(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int heightOf(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. Write Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Builds a balanced tree from values that are already in order, in linear
+     * time.
+     */
+    static <T> Node<T> fromSorted(List<T> values) {
+        return buildBalanced(values, 0, values.size());
+    }
+
+    private static <T> Node<T> buildBalanced(List<T> values, int begin, int end) {
+        if (begin >= end) {
+            return null;
+        }
+        int middle = (begin + end) >>> 1;
+        return new Node<>(values.get(middle), buildBalanced(values, begin, middle),
+                buildBalanced(values, middle + 1, end));
+    }
+
+    /**
+     * Returns a tree with the value in the place the target finds, in place of
+     * any value already there. The target must match the value.
+     */
+    static <T> Node<T> put(Node<T> node, T value, ToIntFunction<? super T> target) {
+        if (node == null) {
+            return new Node<>(value, null, null);
+        }
+        int comparison = target.applyAsInt(node.value);
+        if (comparison < 0) {
+            return balance(node.value, put(node.left, value, target), node.right);
+        } else if (comparison > 0) {
+            return balance(node.value, node.left, put(node.right, value, target));
+        } else {
+            return new Node<>(value, node.left, node.right);
+        }
+    }
+
+    /**
+     * Returns a tree without the value matching the target, or the same tree if
+     * there is none.
+     */
+    static <T> Node<T> remove(Node<T> node, ToIntFunction<? super T> target) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = target.applyAsInt(node.value);
+        if (comparison < 0) {
+            Node<T> left = remove(node.left, target);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        } else if (comparison > 0) {
+            Node<T> right = remove(node.right, target);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        // Replace the node with the lowest node of its right subtree
+        Node<T> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.value, node.left, removeFirst(node.right));
+    }
+
+    private static <T> Node<T> removeFirst(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.value, removeFirst(node.left), node.right);
+    }
+
+    private static <T> Node<T> balance(T value, Node<T> left, Node<T> right) {
+        int balance = heightOf(left) - heightOf(right);
+        if (balance > 1) {
+            if (heightOf(left.left) < heightOf(left.right)) {
+                left = rotateLeft(left.value, left.left, left.right);
+            }
+            return rotateRight(value, left, right);
+        } else if (balance < -1) {
+            if (heightOf(right.right) < heightOf(right.left)) {
+                right = rotateRight(right.value, right.left, right.right);
+            }
+            return rotateLeft(value, left, right);
+        }
+        return new Node<>(value, left, right);
+    }
+
+    private static <T> Node<T> rotateRight(T value, Node<T> left, Node<T> right) {
+        return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+    }
+
+    private static <T> Node<T> rotateLeft(T value, Node<T> left, Node<T> right) {
+        return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+    }
+}
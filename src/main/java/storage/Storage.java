@@ -1,9 +1,13 @@
 package storage;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -12,19 +16,32 @@ import exception.PrimaryKeyNotFoundException;
 import javafx.application.Platform;
 import shared.CustomTime;
 import shared.Task;
+import shared.TaskSnapshotCodec;
 import skeleton.StorageSpec;
 
 /**
+ * Holds the Tasks in memory and persists them in the background.
+ *
+ * The Tasks are held in a PersistentTaskMap, which is replaced by a new version
+ * on every write. Deleted Tasks are moved to a separate map of tombstones, so
+ * that scans only touch live Tasks, and are evicted once they can no longer be
+ * restored by undo or redo. Tasks held by Storage are never modified in place either: a
+ * modified Task is saved as a new copy. Any version of the map read from
+ * _taskData is therefore a consistent snapshot, which can be read without
+ * locking while writes continue. Methods that modify Storage are synchronized,
+ * so that the autosave thread can take a snapshot together with the journal
+ * records leading up to it.
+ *
  * @@author A0127357B
  */
-public class Storage extends TimerTask implements StorageSpec<Task> {
+public class Storage implements StorageSpec<Task> {
 
     /**
      * Constants
      */
     private static final int INDEX_TASK_INITIAL = 1;
-    private static final int SAVE_FIRST_DELAY = 5000;
     private static final int SAVE_DELAY = 5000;
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 1000;
 
     /**
      * Singleton Implementation
@@ -37,9 +54,17 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
     /**
      * Properties
      */
-    private TreeMap<Integer, Task> _taskData;
+    private volatile PersistentTaskMap _taskData; // live Tasks only
+    private volatile PersistentTaskMap _tombstones; // deleted Tasks that may still be restored
+    private int _nextId;
     private boolean _isDirty;
-    private Timer _autosaveTimer;
+    private int _batchDepth; // nesting depth of batches of writes in progress
+    private long _saveRequestCount; // number of times changes were marked to be saved
+    private AutosaveWriter _autosaveWriter;
+    private TaskJournal _journal;
+    private TaskIntervalIndex _intervalIndex;
+    private TaskNameIndex _nameIndex;
+    private TaskOrderIndex _orderIndex;
 
     /**
      * Constructs a new Storage instance.
@@ -48,22 +73,76 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
      */
     protected Storage() {
         // Instantiates storage
-        this._taskData = new TreeMap<>();
+        this._taskData = PersistentTaskMap.EMPTY;
+        this._tombstones = PersistentTaskMap.EMPTY;
+        this._nextId = INDEX_TASK_INITIAL;
         this._isDirty = false;
-    }
-
-    @Override
-    public void run() {
-        if (!this._isDirty) return;
-        this.writeToDisk();
+        this._batchDepth = 0;
+        this._journal = new TaskJournal();
+        this._intervalIndex = new TaskIntervalIndex();
+        this._nameIndex = new TaskNameIndex();
+        this._orderIndex = new TaskOrderIndex();
     }
 
     @Override
     public void initialise() {
         this.readFromDisk();
 
-        this._autosaveTimer = new Timer();
-        this._autosaveTimer.scheduleAtFixedRate(this, SAVE_FIRST_DELAY, SAVE_DELAY);
+        this._autosaveWriter = new AutosaveWriter(this::saveChanges, SAVE_DELAY);
+    }
+
+    /**
+     * Saves any pending changes now, on the autosave thread. Without an autosave
+     * thread, as in tests, the changes are saved before this returns.
+     *
+     * @return a future that completes once the changes have been written
+     */
+    public Future<?> flush() {
+        if (this._autosaveWriter == null) {
+            this.saveChanges();
+            return CompletableFuture.completedFuture(null);
+        }
+        return this._autosaveWriter.flush();
+    }
+
+    private synchronized void markDirty() {
+        this._isDirty = true;
+        // Writes within a batch are saved together once the batch ends
+        if (this._batchDepth > 0) {
+            return;
+        }
+        this._saveRequestCount++;
+        if (this._autosaveWriter != null) {
+            this._autosaveWriter.requestSave();
+        }
+    }
+
+    /**
+     * Returns the number of times changes have been marked to be saved, which
+     * is once per write, or once per batch of writes.
+     */
+    public synchronized long getSaveRequestCount() {
+        return this._saveRequestCount;
+    }
+
+    /**
+     * Starts a batch of writes, during which changes are not saved. Batches may
+     * be nested, and every call must be matched by a call to endBatch.
+     */
+    @Override public synchronized void beginBatch() {
+        this._batchDepth++;
+    }
+
+    /**
+     * Ends a batch of writes, and requests a single save of all the changes
+     * made during the outermost batch.
+     */
+    @Override public synchronized void endBatch() {
+        assert this._batchDepth > 0;
+        this._batchDepth--;
+        if (this._batchDepth == 0 && this._isDirty) {
+            this.markDirty();
+        }
     }
 
 
@@ -80,41 +159,165 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
      *            the Task to put into TreeMap
      * @return the ID of the added Task
      */
-    @Override public int save(Task task) {
+    @Override public synchronized int save(Task task) {
         // TODO: Check for potential time clashes
         boolean isNewTask = (task.getId() == null);
 
         // Find a new ID for tasks that does not exist inside the storage
         if (isNewTask) {
-            int newIndex = INDEX_TASK_INITIAL;
-
-            if (!this._taskData.isEmpty()) {
-                // Use last index increment
-                newIndex = this._taskData.lastKey() + 1;
-            }
-
-            task.setId(newIndex);
+            task.setId(this._nextId);
         }
 
         // Put the task
-        this._taskData.put(task.getId(), task);
-        this._isDirty = true;
+        this.putLive(task);
+        this.updateIndexes(task);
+        this._journal.recordSave(task);
+        this.markDirty();
 
         return task.getId();
     }
 
-    private void writeToDisk() {
-        List<Task> allTask = this.getAll();
+    /**
+     * Saves new Tasks in bulk, giving each an ID, and requests a single save of
+     * all of them.
+     *
+     * @param tasks
+     *            the new Tasks, which have no ID yet
+     * @return the IDs given to the Tasks, in the same order
+     */
+    @Override public synchronized int[] saveAll(List<Task> tasks) {
+        int[] ids = new int[tasks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Task task = tasks.get(i);
+            assert task.getId() == null;
+            task.setId(this._nextId);
+
+            this.putLive(task);
+            this.updateIndexes(task);
+            this._journal.recordSave(task);
+            ids[i] = task.getId();
+        }
+        if (ids.length > 0) {
+            this.markDirty();
+        }
+        return ids;
+    }
+
+    /**
+     * Autosave. Appends the pending journal records to disk, and only rewrites
+     * the full data file once the journal has grown large enough to be worth
+     * compacting. Only the journal records and the current version of the map
+     * are taken while holding Storage; the writing itself does not block changes
+     * to Storage. If the write fails, the records are kept for the next save.
+     */
+    void saveChanges() {
+        PersistentTaskMap snapshot = null;
+        List<String> records;
+
+        synchronized (this) {
+            if (!this._isDirty) return;
+
+            if (this._journal.getRecordCount() >= JOURNAL_COMPACTION_THRESHOLD) {
+                snapshot = this._taskData;
+            }
+            records = this._journal.drainPendingRecords();
+            this._isDirty = false;
+        }
+
+        if (snapshot != null) {
+            // Fold the journal into a fresh snapshot of the data file. IDs are kept
+            // as they are so that the in-memory state stays consistent with the file.
+            this.compact(snapshot.values(), records);
+        } else {
+            this.appendToJournal(records);
+        }
+    }
+
+    /**
+     * Rewrites the whole data file with serial IDs and discards the journal.
+     * Only used on shutdown, since renumbering invalidates the IDs referred to
+     * by any journal records written afterwards.
+     */
+    void writeToDisk() {
+        PersistentTaskMap snapshot;
+        List<String> records;
+        synchronized (this) {
+            snapshot = this._taskData;
+            records = this._journal.drainPendingRecords();
+            this._isDirty = false;
+        }
+        List<Task> allTask = snapshot.values();
+
+        // The journal refers to the IDs before renumbering, so it is folded into
+        // the data file and removed first. Otherwise a crash before it is removed
+        // would replay it onto the wrong Tasks.
+        if (!this.compact(allTask, records)) {
+            // There is no later save, so keep what can be kept in the journal
+            List<String> pendingRecords;
+            synchronized (this) {
+                pendingRecords = this._journal.drainPendingRecords();
+            }
+            this.appendToJournal(pendingRecords);
+            return;
+        }
+        boolean isSerial = IntStream.range(0, allTask.size())
+                .allMatch(index -> allTask.get(index).getId() == index + 1);
+        if (isSerial) {
+            return;
+        }
 
         // Keep internal index serial
-        List<String> tasksToWrite = IntStream.range(0, allTask.size()).mapToObj(index -> {
+        List<Task> tasksToWrite = IntStream.range(0, allTask.size()).mapToObj(index -> {
             Task task = allTask.get(index).clone();
             task.setId(index + 1);
             return task;
-        }).map(Task::encodeTaskToString).collect(Collectors.toList());
-        this.getDiskIO().write(tasksToWrite);
+        }).collect(Collectors.toList());
+        this.writeTasks(tasksToWrite);
+    }
 
-        this._isDirty = false;
+    /**
+     * Writes the tasks, which include the effect of the drained records, as the
+     * new data file and removes the journal. If the data file cannot be written,
+     * the journal is kept and the records are put back to be saved again.
+     *
+     * @return whether the journal has been removed
+     */
+    private boolean compact(List<Task> tasks, List<String> records) {
+        if (!this.writeTasks(tasks)) {
+            this.restorePendingRecords(records);
+            return false;
+        }
+        synchronized (this) {
+            this._journal.markCompacted();
+        }
+        return this.getDiskIO().clearJournal();
+    }
+
+    private void appendToJournal(List<String> records) {
+        if (!records.isEmpty() && !this.getDiskIO().appendJournal(records)) {
+            this.restorePendingRecords(records);
+        }
+    }
+
+    private synchronized void restorePendingRecords(List<String> records) {
+        this._journal.restorePendingRecords(records);
+        // Saved again on the next write, or on shutdown
+        this._isDirty = true;
+    }
+
+    /**
+     * Writes the tasks out in the data format chosen in the user preferences.
+     *
+     * @return whether the tasks were written
+     */
+    private boolean writeTasks(List<Task> tasks) {
+        if (this.getDiskIO().getDataFormat() == UserPreferences.DataFormat.SNAPSHOT) {
+            return this.getDiskIO().writeSnapshot(TaskSnapshotCodec.encode(tasks));
+        } else {
+            return this.getDiskIO().write(tasks.stream()
+                    .map(Task::encodeTaskToString)
+                    .collect(Collectors.toList()));
+        }
     }
 
     // ----------------------------------------------------------------------------------------
@@ -131,9 +334,9 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
      * @return the Task to which the specified index is mapped
      */
     @Override public Task get(int index) {
-        // check if TreeMap contains the key that is queried
-        // check if the Task entry has already been deleted
-        if (!this._taskData.containsKey(index) || this._taskData.get(index).isDeleted()) {
+        Task task = this._taskData.get(index);
+        // check if the map of live Tasks contains the key that is queried
+        if (task == null) {
             try {
                 throw new PrimaryKeyNotFoundException(index);
             } catch (PrimaryKeyNotFoundException e) {
@@ -142,8 +345,8 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
             return null;
         }
 
-        // key exists, retrieve Task corresponding to key
-        return this._taskData.get(index);
+        // key exists, return Task corresponding to key
+        return task;
     }
 
     // ----------------------------------------------------------------------------------------
@@ -162,9 +365,27 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
      *         of Tasks stored in TreeMap
      */
     @Override public List<Task> getAll() {
-        return this._taskData.values().stream()
-                .filter(task -> !task.isDeleted())
-                .collect(Collectors.toList());
+        return this._taskData.values();
+    }
+
+    /**
+     * Returns an iterator over all Tasks that have not been deleted, in order of
+     * ID. The Tasks are read lazily from a snapshot of Storage, so nothing is
+     * copied and later changes to Storage are not seen.
+     */
+    @Override public Iterator<Task> iterateAll() {
+        return this._taskData.iterator();
+    }
+
+    /**
+     * Returns all Tasks that have not been deleted, in the order defined by
+     * TaskPriorityComparator. The order is maintained as Tasks are written, so
+     * this does not sort.
+     *
+     * @return an unmodifiable list of Tasks in display order
+     */
+    @Override public List<Task> getAllInDisplayOrder() {
+        return this._orderIndex.getOrderedTasks();
     }
 
     // ----------------------------------------------------------------------------------------
@@ -180,7 +401,11 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
      * @return the previous Task associated with id, or null if there was no
      *         mapping for id
      */
-    @Override public Task remove(int id) {
+    @Override public synchronized Task remove(int id) {
+        if (this._tombstones.containsKey(id)) {
+            // already deleted
+            return this._tombstones.get(id);
+        }
         if (!this._taskData.containsKey(id)) {
             try {
                 throw new PrimaryKeyNotFoundException(id);
@@ -190,39 +415,111 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
             }
             return null;
         }
-        this._taskData.get(id).setDeletedStatus(true);
-        this._isDirty = true;
-        return this._taskData.get(id);
+        Task task = this.moveToTombstones(id);
+        this.removeFromIndexes(id);
+        this._journal.recordDelete(id);
+        this.markDirty();
+        return task;
     }
 
-    @Override public void undelete(int id) {
-        if (!(this._taskData.containsKey(id) && this._taskData.get(id).isDeleted())) {
+    @Override public synchronized void undelete(int id) {
+        if (!this._tombstones.containsKey(id)) {
             try {
                 throw new PrimaryKeyNotFoundException(id);
             } catch (PrimaryKeyNotFoundException e) {
                 ExceptionHandler.handle(e);
             }
         }
-        this._taskData.get(id).setDeletedStatus(false);
-        this._isDirty = true;
+        this.updateIndexes(this.restoreFromTombstones(id));
+        this._journal.recordUndelete(id);
+        this.markDirty();
     }
 
     /**
      * Clears all the Tasks from storage.
      */
-    public void removeAll() {
-        this._taskData.clear();
-        this._isDirty = true;
+    public synchronized void removeAll() {
+        this._taskData = PersistentTaskMap.EMPTY;
+        this._tombstones = PersistentTaskMap.EMPTY;
+        this._nextId = INDEX_TASK_INITIAL;
+        this.clearIndexes();
+        this._journal.recordClear();
+        this.markDirty();
     }
 
     @Override
     public Set<Integer> getNonDeletedTasks() {
-        return this._taskData.keySet()
+        return this._taskData.values()
                 .stream()
-                .filter(id -> !this._taskData.get(id).isDeleted())
+                .map(Task::getId)
                 .collect(Collectors.toSet());
     }
 
+    public int getLiveTaskCount() {
+        return this._taskData.size();
+    }
+
+    public int getDeletedTaskCount() {
+        return this._tombstones.size();
+    }
+
+    /**
+     * Evicts deleted Tasks for good once more of them have built up than the
+     * user preferences allow. Deleted Tasks whose IDs are still referred to,
+     * such as by the undo history, are kept so that they can be restored.
+     *
+     * @param referencedIds
+     *            supplies the IDs that must be kept, only asked for when
+     *            compacting
+     * @return the number of deleted Tasks evicted
+     */
+    @Override public synchronized int compactTombstones(Supplier<Set<Integer>> referencedIds) {
+        if (this._tombstones.size() <= UserPreferences.getInstance().getDeletedTaskLimit()) {
+            return 0;
+        }
+
+        Set<Integer> idsToKeep = referencedIds.get();
+        PersistentTaskMap tombstones = this._tombstones;
+        for (Task task : this._tombstones.values()) {
+            if (!idsToKeep.contains(task.getId())) {
+                tombstones = tombstones.remove(task.getId());
+            }
+        }
+        int evictedCount = this._tombstones.size() - tombstones.size();
+        this._tombstones = tombstones;
+        return evictedCount;
+    }
+
+    /**
+     * Puts the Task among the live Tasks, in place of any tombstone with its ID.
+     */
+    private void putLive(Task task) {
+        this._taskData = this._taskData.put(task.getId(), task);
+        this._tombstones = this._tombstones.remove(task.getId());
+        // IDs are not reused within a session, even once their tombstones are evicted
+        this._nextId = Math.max(this._nextId, task.getId() + 1);
+    }
+
+    /**
+     * Moves the live Task to the tombstones, as a copy marked deleted since
+     * stored Tasks are never modified in place.
+     */
+    private Task moveToTombstones(int id) {
+        Task task = this._taskData.get(id).clone();
+        task.setDeletedStatus(true);
+        this._taskData = this._taskData.remove(id);
+        this._tombstones = this._tombstones.put(id, task);
+        return task;
+    }
+
+    private Task restoreFromTombstones(int id) {
+        Task task = this._tombstones.get(id).clone();
+        task.setDeletedStatus(false);
+        this._tombstones = this._tombstones.remove(id);
+        this._taskData = this._taskData.put(id, task);
+        return task;
+    }
+
     // ----------------------------------------------------------------------------------------
     //
     // V. Search by Time Range Methods
@@ -230,51 +527,241 @@ public class Storage extends TimerTask implements StorageSpec<Task> {
     // ----------------------------------------------------------------------------------------
 
     /**
-     * Search for all Tasks that has startTime before or at the same time as
-     * dateTime
+     * Search for all Tasks that start no earlier than start and end no later than
+     * end. Only Tasks with both a start and an end time are considered.
      *
-     *            high endpoint (inclusive) of the Tasks in the returned list
-     * @return a list of Tasks that starts before or at the same time as
-     *         dateTime
+     * @param start
+     *            low endpoint (inclusive), or null if unbounded
+     * @param end
+     *            high endpoint (inclusive), or null if unbounded
+     * @return a list of Tasks within the range, in order of start time
      */
     public List<Task> searchByDate(CustomTime start, CustomTime end) {
-        // Search for all
-        return this.getAll().stream()
-                .filter(task -> {
-                    // When time is null, we assume it's unbounded
-                    boolean startSatisfies = start == null || task.getStartTime().compareTo(start) >= 0;
-                    boolean endSatisfies = end == null || task.getEndTime().compareTo(end) <= 0;
-                    return startSatisfies && endSatisfies;
-                })
+        return this._intervalIndex.findWithin(start, end);
+    }
+
+    /**
+     * Returns all Tasks whose time range overlaps the given one, in order of
+     * start time.
+     */
+    public List<Task> searchOverlapping(CustomTime start, CustomTime end) {
+        return this._intervalIndex.findOverlapping(start, end);
+    }
+
+    /**
+     * Returns whether any Task has a time range overlapping the given one.
+     */
+    public boolean hasOverlapping(CustomTime start, CustomTime end) {
+        return this._intervalIndex.hasOverlapping(start, end);
+    }
+
+    /**
+     * Returns the latest end time among the Tasks that have both a start and an
+     * end time.
+     */
+    public Optional<CustomTime> getLatestEndTime() {
+        return this._intervalIndex.getLatestEndTime();
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // VI. Search by Name Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Returns the Tasks whose names may contain a word matching one of the query
+     * words, as a superset of the Tasks that PowerSearch would match. Falls back
+     * to all Tasks when the query words cannot be looked up in the index.
+     *
+     * @param queryWords
+     *            the words of the search query
+     * @return the candidate Tasks in order of ID
+     */
+    @Override public List<Task> getSearchCandidates(String[] queryWords) {
+        BitSet candidateIds = this._nameIndex.findCandidates(queryWords);
+        if (candidateIds == null) {
+            return this.getAll();
+        }
+        PersistentTaskMap taskData = this._taskData;
+        return candidateIds.stream()
+                .mapToObj(taskData::get)
                 .collect(Collectors.toList());
     }
 
+    // ----------------------------------------------------------------------------------------
+    //
+    // VII. Index Maintenance Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    private void updateIndexes(Task task) {
+        if (task.isDeleted()) {
+            this.removeFromIndexes(task.getId());
+        } else {
+            this._intervalIndex.put(task);
+            this._nameIndex.put(task);
+            this._orderIndex.put(task);
+        }
+    }
+
+    private void removeFromIndexes(int id) {
+        this._intervalIndex.remove(id);
+        this._nameIndex.remove(id);
+        this._orderIndex.remove(id);
+    }
+
+    private void clearIndexes() {
+        this._intervalIndex.clear();
+        this._nameIndex.clear();
+        this._orderIndex.clear();
+    }
+
     public DiskIO getDiskIO() {
         return DiskIO.getInstance();
     }
 
     // ----------------------------------------------------------------------------------------
     //
-    // VI. Read From Disk Method
+    // VIII. Read From Disk Method
     //
     // ----------------------------------------------------------------------------------------
 
-    public void readFromDisk() {
-        readFromDisk(this.getDiskIO().read());
+    public synchronized void readFromDisk() {
+        List<Task> tasks = this.getDiskIO().hasSnapshot() ? this.readSnapshot() : null;
+        if (tasks == null) {
+            tasks = this.readDataFile();
+        }
+        this.bulkLoad(tasks);
+
+        this._journal.replay(this.getDiskIO().readJournal(), this);
+        // Nothing can restore the Tasks deleted in an earlier session
+        this._tombstones = PersistentTaskMap.EMPTY;
+
+        this._isDirty = false;
+    }
+
+    /**
+     * @return the Tasks in the snapshot, or null if it cannot be read, in which
+     *         case it is set aside and the data file is read instead
+     */
+    private List<Task> readSnapshot() {
+        try {
+            return TaskSnapshotCodec.decode(this.getDiskIO().readSnapshot());
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+            this.getDiskIO().setAsideSnapshot();
+            return null;
+        }
+    }
+
+    /**
+     * @return the Tasks in the data file, or none if a line cannot be decoded,
+     *         in which case the data file and its journal are set aside, so
+     *         that they are not saved over
+     */
+    private List<Task> readDataFile() {
+        try {
+            // Lines are decoded in parallel, and then loaded in a single pass
+            List<Task> tasks = this.getDiskIO().mapLinesInParallel(line ->
+                    line.length() > 0 ? Task.decodeTaskFromString(line) : null);
+            tasks.removeIf(Objects::isNull);
+            return tasks;
+        } catch (IOException e) {
+            ExceptionHandler.handle(e);
+            this.getDiskIO().setAsideDataFile();
+            return new ArrayList<>();
+        }
     }
 
-    public void readFromDisk(List<String> taskStrings) {
+    public synchronized void readFromDisk(List<String> taskStrings) {
         taskStrings.stream()
                 .map(Task::decodeTaskFromString)
-                .forEach(this::save);
+                .forEach(this::replaySave);
 
         this._isDirty = false;
     }
 
+    // ----------------------------------------------------------------------------------------
+    //
+    // IX. Journal Replay Methods
+    //
+    // ----------------------------------------------------------------------------------------
+    // These apply the effect of a journal record without writing a new one.
+
+    /**
+     * Loads the tasks read from the data file, which is written in ID order, so
+     * they only need sorting if the file has been edited by hand.
+     */
+    void bulkLoad(List<Task> tasks) {
+        boolean isSorted = IntStream.range(1, tasks.size())
+                .allMatch(i -> tasks.get(i - 1).getId() <= tasks.get(i).getId());
+        if (!isSorted) {
+            tasks.sort(Comparator.comparing(Task::getId));
+        }
+        if (this._taskData.isEmpty() && this._tombstones.isEmpty() && hasDistinctIds(tasks)) {
+            this._taskData = PersistentTaskMap.fromSorted(tasks);
+            if (!tasks.isEmpty()) {
+                this._nextId = Math.max(this._nextId, this._taskData.lastKey() + 1);
+            }
+        } else {
+            tasks.forEach(this::putLive);
+        }
+        tasks.forEach(this::updateIndexes);
+    }
+
+    private static boolean hasDistinctIds(List<Task> sortedTasks) {
+        return IntStream.range(1, sortedTasks.size())
+                .allMatch(i -> sortedTasks.get(i - 1).getId() < sortedTasks.get(i).getId());
+    }
+
+    void replaySave(Task task) {
+        if (task.getId() == null) {
+            task.setId(this._nextId);
+        }
+        this.putLive(task);
+        this.updateIndexes(task);
+    }
+
+    void replayDelete(int id) {
+        if (this._taskData.containsKey(id)) {
+            this.moveToTombstones(id);
+            this.removeFromIndexes(id);
+        }
+    }
+
+    void replayUndelete(int id) {
+        if (this._tombstones.containsKey(id)) {
+            this.updateIndexes(this.restoreFromTombstones(id));
+        }
+    }
+
+    void replayClear() {
+        this._taskData = PersistentTaskMap.EMPTY;
+        this._tombstones = PersistentTaskMap.EMPTY;
+        this.clearIndexes();
+    }
+
+    /**
+     * Rewrites the data file on the autosave thread, after any save already
+     * running, and returns once it is written, so that the caller may exit
+     * straight after. The user interface calls this on the command thread, so
+     * closing the window does not wait for it.
+     */
     @Override
     public void shutdown() {
-        this.writeToDisk();
-        this._autosaveTimer.cancel();
+        if (this._autosaveWriter == null) {
+            this.writeToDisk();
+            return;
+        }
+        try {
+            this._autosaveWriter.shutdown(this::writeToDisk).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ExceptionHandler.handle(e);
+        } catch (ExecutionException e) {
+            ExceptionHandler.handle(e);
+        }
     }
 
 }
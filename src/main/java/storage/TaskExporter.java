@@ -0,0 +1,356 @@
+package storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+
+import com.google.gson.stream.JsonWriter;
+
+import shared.CustomTime;
+import shared.Task;
+
+/**
+ * Writes Tasks out to other applications, for the EXPORT command, as CSV, JSON
+ * or iCalendar. The CSV and iCalendar files can be read back by
+ * {@link TaskImporter}.
+ *
+ * Tasks are taken one at a time from an iterator and written straight to the
+ * channel through a small buffer, so exporting takes the same, constant amount
+ * of memory however many Tasks there are.
+ *
+ * @@author A0127357B
+ */
+public class TaskExporter {
+
+    /**
+     * Types
+     */
+    public enum Format {
+        CSV(".csv"), JSON(".json"), ICS(".ics");
+
+        private final String _extension;
+
+        Format(String extension) {
+            this._extension = extension;
+        }
+
+        /**
+         * Returns the format that the file name's extension stands for, or CSV
+         * if there is no such format.
+         */
+        public static Format ofFileName(String fileName) {
+            String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (lowerCaseName.endsWith(format._extension)) {
+                    return format;
+                }
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * Constants
+     */
+    private static final int SIZE_BUFFER = 64 * 1024;
+    private static final String NEWLINE_CSV = "\r\n";
+    private static final String NEWLINE_ICS = "\r\n";
+    private static final String HEADER_CSV = "name,description,start,end,priority,completed";
+    private static final int LENGTH_ICS_LINE = 75;
+
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter FORMAT_TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter FORMAT_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter FORMAT_ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter FORMAT_ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private static final String PRODUCT_ICS = "-//Your MOM//Task Export//EN";
+    private static final String DOMAIN_UID = "@your-mom";
+
+    private TaskExporter() {
+    }
+
+    /**
+     * Writes the Tasks to the channel in the given format. The channel is left
+     * open.
+     *
+     * @return the number of Tasks written
+     * @throws IOException
+     *             if the channel cannot be written to
+     */
+    public static int write(Iterator<Task> tasks, Format format, WritableByteChannel channel) throws IOException {
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1),
+                SIZE_BUFFER);
+        int count;
+        switch (format) {
+            case JSON:
+                count = writeJson(tasks, writer);
+                break;
+            case ICS:
+                count = writeIcs(tasks, writer);
+                break;
+            default:
+                count = writeCsv(tasks, writer);
+                break;
+        }
+        // Not closed, as that would close the channel
+        writer.flush();
+        return count;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. CSV Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    private static int writeCsv(Iterator<Task> tasks, Writer writer) throws IOException {
+        int count = 0;
+        writer.write(HEADER_CSV);
+        writer.write(NEWLINE_CSV);
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            writeCsvValue(writer, task.getTaskName());
+            writer.write(',');
+            writeCsvValue(writer, task.getDescription());
+            writer.write(',');
+            writeCsvValue(writer, formatTime(task.getStartTime()));
+            writer.write(',');
+            writeCsvValue(writer, formatTime(task.getEndTime()));
+            writer.write(',');
+            writeCsvValue(writer, formatPriority(task.getPriority()));
+            writer.write(',');
+            writer.write(Boolean.toString(task.isCompleted()));
+            writer.write(NEWLINE_CSV);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the value, quoted if it holds a separator, quote or line break.
+     */
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. JSON Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    private static int writeJson(Iterator<Task> tasks, Writer writer) throws IOException {
+        int count = 0;
+        JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginArray();
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            json.beginObject();
+            json.name("id").value(task.getId());
+            json.name("name").value(task.getTaskName());
+            json.name("description").value(task.getDescription());
+            json.name("created").value(task.getCreationTime() == null ? null : task.getCreationTime().toString());
+            json.name("start").value(formatTime(task.getStartTime()));
+            json.name("end").value(formatTime(task.getEndTime()));
+            json.name("priority").value(formatPriority(task.getPriority()));
+            json.name("completed").value(task.isCompleted());
+            json.endObject();
+            count++;
+        }
+        json.endArray();
+        // Flushes the JSON writer without closing the channel underneath
+        json.flush();
+        return count;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // III. iCalendar Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Writes Tasks with a start time as events, and all others as to-dos, due
+     * at their end time if they have one.
+     */
+    private static int writeIcs(Iterator<Task> tasks, Writer writer) throws IOException {
+        int count = 0;
+        String timestamp = LocalDateTime.now().format(FORMAT_ICS_DATE_TIME);
+        writeIcsLine(writer, "BEGIN:VCALENDAR");
+        writeIcsLine(writer, "VERSION:2.0");
+        writeIcsLine(writer, "PRODID:" + PRODUCT_ICS);
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            boolean isEvent = task.getStartTime() != null && task.getStartTime().hasDate();
+            String component = isEvent ? "VEVENT" : "VTODO";
+
+            writeIcsLine(writer, "BEGIN:" + component);
+            writeIcsLine(writer, "UID:" + task.getId() + DOMAIN_UID);
+            writeIcsLine(writer, "DTSTAMP:" + timestamp);
+            writeIcsLine(writer, "SUMMARY:" + escapeIcsText(task.getTaskName()));
+            if (task.getDescription() != null && !task.getDescription().isEmpty()) {
+                writeIcsLine(writer, "DESCRIPTION:" + escapeIcsText(task.getDescription()));
+            }
+            if (isEvent) {
+                writeIcsTime(writer, "DTSTART", task.getStartTime());
+                writeIcsTime(writer, "DTEND", toExclusiveEnd(task.getEndTime()));
+            } else {
+                writeIcsTime(writer, "DUE", task.getEndTime());
+            }
+            if (task.getPriority() != null && task.getPriority() != Task.Priority.NULL) {
+                writeIcsLine(writer, "PRIORITY:" + toIcsPriority(task.getPriority()));
+            }
+            if (task.isCompleted()) {
+                writeIcsLine(writer, "STATUS:COMPLETED");
+            }
+            writeIcsLine(writer, "END:" + component);
+            count++;
+        }
+        writeIcsLine(writer, "END:VCALENDAR");
+        return count;
+    }
+
+    /**
+     * The DTEND of an event is the first day or instant after it, while Tasks
+     * end on their last day, so a date-only end is moved on a day.
+     */
+    private static CustomTime toExclusiveEnd(CustomTime end) {
+        if (end == null || !end.hasDate() || end.hasTime()) {
+            return end;
+        }
+        return new CustomTime(end.getDate().plusDays(1), null);
+    }
+
+    private static void writeIcsTime(Writer writer, String name, CustomTime time) throws IOException {
+        if (time == null || !time.hasDate()) {
+            return;
+        }
+        if (time.hasTime()) {
+            writeIcsLine(writer, name + ":" + LocalDateTime.of(time.getDate(), time.getTime()).format(FORMAT_ICS_DATE_TIME));
+        } else {
+            writeIcsLine(writer, name + ";VALUE=DATE:" + time.getDate().format(FORMAT_ICS_DATE));
+        }
+    }
+
+    /**
+     * Writes a content line, folded so that no line is longer than the
+     * iCalendar limit, which counts the bytes of the line in UTF-8. Lines are
+     * only folded between characters.
+     */
+    private static void writeIcsLine(Writer writer, String line) throws IOException {
+        int start = 0;
+        int lineLength = 0;
+        int limit = LENGTH_ICS_LINE;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int length = utf8Length(codePoint);
+            if (lineLength + length > limit) {
+                writer.write(line, start, i - start);
+                writer.write(NEWLINE_ICS);
+                writer.write(' ');
+                start = i;
+                lineLength = 0;
+                // The space starting a continuation line counts towards it
+                limit = LENGTH_ICS_LINE - 1;
+            }
+            lineLength += length;
+            i += Character.charCount(codePoint);
+        }
+        writer.write(line, start, line.length() - start);
+        writer.write(NEWLINE_ICS);
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        } else if (codePoint < 0x800) {
+            return 2;
+        } else if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private static String escapeIcsText(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == ',' || c == ';') {
+                escaped.append('\\').append(c);
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else if (c != '\r') {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Maps the priorities of Tasks onto iCalendar priorities, which run from 1
+     * (highest) to 9 (lowest).
+     */
+    private static int toIcsPriority(Task.Priority priority) {
+        switch (priority) {
+            case HIGH:
+                return 1;
+            case MEDIUM:
+                return 5;
+            default:
+                return 9;
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // IV. Helper Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    private static String formatTime(CustomTime time) {
+        if (time == null) {
+            return null;
+        }
+        if (time.hasDate() && time.hasTime()) {
+            return LocalDateTime.of(time.getDate(), time.getTime()).format(FORMAT_DATE_TIME);
+        } else if (time.hasDate()) {
+            return time.getDate().format(FORMAT_DATE);
+        } else if (time.hasTime()) {
+            return time.getTime().format(FORMAT_TIME);
+        }
+        return null;
+    }
+
+    private static String formatPriority(Task.Priority priority) {
+        return priority == null ? null : priority.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,423 @@
+package storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import shared.CustomTime;
+import shared.Task;
+
+/**
+ * Reads Tasks from files exported by other applications, for the IMPORT
+ * command. Two formats are understood, told apart by the file extension:
+ *
+ * CSV files hold one Task per row. The first row may be a header naming the
+ * columns, out of name, description, start, end, priority and completed, in any
+ * order; otherwise the columns are taken to be name, start, end and priority.
+ * Times are written as 2016-04-01T08:00, 2016-04-01 08:00 or 2016-04-01.
+ *
+ * iCalendar (.ics) files are read for their VEVENT and VTODO components.
+ * SUMMARY, DESCRIPTION, DTSTART, DTEND (or DUE), PRIORITY and STATUS are mapped
+ * onto the Task. Components without a SUMMARY are skipped.
+ *
+ * Files are read a line at a time, so only the Tasks themselves are held in
+ * memory. The returned Tasks have no ID yet. A malformed row fails the whole
+ * import, so that a file is either imported entirely or not at all.
+ *
+ * @@author A0127357B
+ */
+public class TaskImporter {
+
+    /**
+     * Constants
+     */
+    private static final String EXTENSION_ICS = ".ics";
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_DESCRIPTION = "description";
+    private static final String COLUMN_START = "start";
+    private static final String COLUMN_END = "end";
+    private static final String COLUMN_PRIORITY = "priority";
+    private static final String COLUMN_COMPLETED = "completed";
+    private static final String[] COLUMNS_DEFAULT = { COLUMN_NAME, COLUMN_START, COLUMN_END, COLUMN_PRIORITY };
+
+    private static final DateTimeFormatter FORMAT_CSV_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd[' ']['T']HH:mm[:ss]");
+    private static final DateTimeFormatter FORMAT_ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter FORMAT_ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private static final String ICS_BEGIN = "BEGIN";
+    private static final String ICS_END = "END";
+    private static final String ICS_EVENT = "VEVENT";
+    private static final String ICS_TODO = "VTODO";
+    private static final String ICS_SUMMARY = "SUMMARY";
+    private static final String ICS_DESCRIPTION = "DESCRIPTION";
+    private static final String ICS_START = "DTSTART";
+    private static final String ICS_END_TIME = "DTEND";
+    private static final String ICS_DUE = "DUE";
+    private static final String ICS_PRIORITY = "PRIORITY";
+    private static final String ICS_STATUS = "STATUS";
+    private static final String ICS_STATUS_COMPLETED = "COMPLETED";
+    private static final String ICS_SUFFIX_UTC = "Z";
+
+    private static final String ERROR_LINE = "Line %d: %s";
+    private static final String ERROR_UNCLOSED_QUOTE = "Unclosed quote";
+    private static final String ERROR_NAME_MISSING = "Task name is missing";
+    private static final String ERROR_START_WITHOUT_END = "Task cannot have a start without an end";
+    private static final String ERROR_TIME = "Cannot read the time \"%s\"";
+    private static final String ERROR_PRIORITY = "Cannot read the priority \"%s\"";
+
+    private TaskImporter() {
+    }
+
+    /**
+     * Reads the Tasks from a CSV or iCalendar file, depending on its extension.
+     *
+     * @throws IOException
+     *             if the file cannot be read, or holds a malformed Task
+     */
+    public static List<Task> read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION_ICS)) {
+                return readIcs(reader);
+            }
+            return readCsv(reader);
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. CSV Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    public static List<Task> readCsv(BufferedReader reader) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        String[] columns = null;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int rowLineNumber = lineNumber;
+
+            // A quoted value may run over several lines
+            StringBuilder row = new StringBuilder(line);
+            while (hasUnclosedQuote(row)) {
+                String nextLine = reader.readLine();
+                if (nextLine == null) {
+                    throw new IOException(String.format(ERROR_LINE, rowLineNumber, ERROR_UNCLOSED_QUOTE));
+                }
+                lineNumber++;
+                row.append('\n').append(nextLine);
+            }
+            if (row.toString().trim().isEmpty()) {
+                continue;
+            }
+
+            List<String> values = splitCsvRow(row);
+            if (columns == null) {
+                columns = readHeader(values);
+                if (columns != null) {
+                    continue;
+                }
+                columns = COLUMNS_DEFAULT;
+            }
+
+            try {
+                tasks.add(toTask(columns, values));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(String.format(ERROR_LINE, rowLineNumber, e.getMessage()), e);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the column names if the row is a header, or null if it is not.
+     */
+    private static String[] readHeader(List<String> values) {
+        String[] columns = new String[values.size()];
+        boolean hasName = false;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = values.get(i).trim().toLowerCase(Locale.ROOT);
+            hasName |= columns[i].equals(COLUMN_NAME);
+        }
+        return hasName ? columns : null;
+    }
+
+    private static Task toTask(String[] columns, List<String> values) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columns.length && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                row.put(columns[i], value);
+            }
+        }
+
+        String name = row.get(COLUMN_NAME);
+        if (name == null) {
+            throw new IllegalArgumentException(ERROR_NAME_MISSING);
+        }
+        CustomTime start = parseCsvTime(row.get(COLUMN_START));
+        CustomTime end = parseCsvTime(row.get(COLUMN_END));
+        if (start != null && end == null) {
+            throw new IllegalArgumentException(ERROR_START_WITHOUT_END);
+        }
+
+        Task task = new Task(null, name, row.getOrDefault(COLUMN_DESCRIPTION, ""), start, end);
+        if (row.containsKey(COLUMN_PRIORITY)) {
+            task.setPriority(parsePriority(row.get(COLUMN_PRIORITY)));
+        }
+        task.setCompleted(Boolean.parseBoolean(row.get(COLUMN_COMPLETED)));
+        return task;
+    }
+
+    private static CustomTime parseCsvTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.length() <= "yyyy-MM-dd".length()) {
+                return new CustomTime(LocalDate.parse(value), null);
+            }
+            return new CustomTime(LocalDateTime.parse(value, FORMAT_CSV_DATE_TIME));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format(ERROR_TIME, value), e);
+        }
+    }
+
+    private static Task.Priority parsePriority(String value) {
+        for (Task.Priority priority : Task.Priority.values()) {
+            if (priority.name().equalsIgnoreCase(value) || priority.toString().equals(value)) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException(String.format(ERROR_PRIORITY, value));
+    }
+
+    private static boolean hasUnclosedQuote(CharSequence row) {
+        boolean isQuoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            if (row.charAt(i) == CSV_QUOTE) {
+                isQuoted = !isQuoted;
+            }
+        }
+        return isQuoted;
+    }
+
+    /**
+     * Splits a row into its values, unquoting quoted values, in which a doubled
+     * quote stands for a quote.
+     */
+    private static List<String> splitCsvRow(CharSequence row) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (isQuoted) {
+                if (c != CSV_QUOTE) {
+                    value.append(c);
+                } else if (i + 1 < row.length() && row.charAt(i + 1) == CSV_QUOTE) {
+                    value.append(CSV_QUOTE);
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == CSV_QUOTE) {
+                isQuoted = true;
+            } else if (c == CSV_SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. iCalendar Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    public static List<Task> readIcs(BufferedReader reader) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        Map<String, String> component = null;
+        int lineNumber = 0;
+        int componentLineNumber = 0;
+        int unfoldedLineNumber = 0;
+
+        // A line starting with a space or tab continues the previous one, so
+        // each line is only handled once the next one has been seen
+        StringBuilder unfolded = null;
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line != null && unfolded != null && !line.isEmpty()
+                    && (line.charAt(0) == ' ' || line.charAt(0) == '\t')) {
+                unfolded.append(line, 1, line.length());
+                continue;
+            }
+
+            if (unfolded != null) {
+                String contentLine = unfolded.toString();
+                int colon = contentLine.indexOf(':');
+                String name = colon < 0 ? contentLine : contentLine.substring(0, colon);
+                String value = colon < 0 ? "" : contentLine.substring(colon + 1);
+                String propertyName = name.split(";", 2)[0].toUpperCase(Locale.ROOT);
+
+                if (propertyName.equals(ICS_BEGIN) && isTaskComponent(value)) {
+                    component = new HashMap<>();
+                    componentLineNumber = unfoldedLineNumber;
+                } else if (propertyName.equals(ICS_END) && isTaskComponent(value) && component != null) {
+                    try {
+                        Task task = toTask(component);
+                        if (task != null) {
+                            tasks.add(task);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException(String.format(ERROR_LINE, componentLineNumber, e.getMessage()), e);
+                    }
+                    component = null;
+                } else if (component != null) {
+                    // Parameters are not needed, as dates and date-times differ in length
+                    component.put(propertyName, value);
+                }
+            }
+            unfolded = line == null ? null : new StringBuilder(line);
+            unfoldedLineNumber = lineNumber;
+        } while (line != null);
+
+        return tasks;
+    }
+
+    private static boolean isTaskComponent(String value) {
+        String type = value.trim().toUpperCase(Locale.ROOT);
+        return type.equals(ICS_EVENT) || type.equals(ICS_TODO);
+    }
+
+    /**
+     * Returns the Task described by the properties of a component, or null if
+     * it has no summary.
+     */
+    private static Task toTask(Map<String, String> component) {
+        String name = component.get(ICS_SUMMARY);
+        if (name == null || unescapeIcsText(name).trim().isEmpty()) {
+            return null;
+        }
+
+        CustomTime start = parseIcsTime(component.get(ICS_START));
+        CustomTime end;
+        if (component.containsKey(ICS_END_TIME)) {
+            end = toInclusiveEnd(start, parseIcsTime(component.get(ICS_END_TIME)));
+        } else {
+            end = parseIcsTime(component.get(ICS_DUE));
+        }
+        if (start != null && end == null) {
+            // An event without an end takes up its start day or instant
+            end = start;
+        }
+
+        String description = component.get(ICS_DESCRIPTION);
+        Task task = new Task(null, unescapeIcsText(name).trim(),
+                description == null ? "" : unescapeIcsText(description), start, end);
+        if (component.containsKey(ICS_PRIORITY)) {
+            task.setPriority(parseIcsPriority(component.get(ICS_PRIORITY)));
+        }
+        task.setCompleted(ICS_STATUS_COMPLETED.equalsIgnoreCase(component.get(ICS_STATUS)));
+        return task;
+    }
+
+    /**
+     * The DTEND of an event is the first day or instant after it, so an event
+     * on the dates 1 to 2 April ends on 3 April. Tasks end on their last day,
+     * so a date-only DTEND is moved back a day. DUE is the last day already.
+     */
+    private static CustomTime toInclusiveEnd(CustomTime start, CustomTime end) {
+        if (end == null || end.hasTime()) {
+            return end;
+        }
+        LocalDate lastDay = end.getDate().minusDays(1);
+        if (start != null && lastDay.isBefore(start.getDate())) {
+            // An empty event still takes up its start day
+            return new CustomTime(start.getDate(), null);
+        }
+        return new CustomTime(lastDay, null);
+    }
+
+    private static CustomTime parseIcsTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        String time = value.trim();
+        try {
+            if (time.length() == "yyyyMMdd".length()) {
+                return new CustomTime(LocalDate.parse(time, FORMAT_ICS_DATE), null);
+            }
+            if (time.endsWith(ICS_SUFFIX_UTC)) {
+                LocalDateTime utcTime = LocalDateTime.parse(time.substring(0, time.length() - 1), FORMAT_ICS_DATE_TIME);
+                return new CustomTime(utcTime.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault())
+                        .toLocalDateTime());
+            }
+            // Times in a named time zone are taken as local times
+            return new CustomTime(LocalDateTime.parse(time, FORMAT_ICS_DATE_TIME));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format(ERROR_TIME, value), e);
+        }
+    }
+
+    /**
+     * Maps the iCalendar priority, from 1 (highest) to 9 (lowest), with 0 for
+     * none, onto the priorities of Tasks.
+     */
+    private static Task.Priority parseIcsPriority(String value) {
+        int priority;
+        try {
+            priority = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_PRIORITY, value), e);
+        }
+        if (priority <= 0) {
+            return Task.Priority.NULL;
+        } else if (priority <= 4) {
+            return Task.Priority.HIGH;
+        } else if (priority == 5) {
+            return Task.Priority.MEDIUM;
+        } else {
+            return Task.Priority.LOW;
+        }
+    }
+
+    private static String unescapeIcsText(String value) {
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+}
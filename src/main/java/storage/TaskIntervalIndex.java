@@ -0,0 +1,292 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import shared.CustomTime;
+import shared.Task;
+
+/**
+ * Secondary index over the time intervals of the Tasks in Storage, so that
+ * range and overlap queries do not have to scan every Task.
+ *
+ * The index is a treap ordered by start time (with the ID as tiebreak), where
+ * every node also keeps the latest and earliest end time found in its subtree.
+ * Subtrees that cannot contain a match are skipped, so queries take
+ * O(log n + k) for k results. Only Tasks with both a start and an end time are
+ * indexed.
+ *
+ * The interval of each Task is captured when it is put into the index, so a Task
+ * that is modified in place must be put again for the index to pick up the change.
+ *
+ * @@author A0127357B
+ */
+public class TaskIntervalIndex {
+
+    private static class Node {
+        final int id;
+        final Task task;
+        final CustomTime start;
+        final CustomTime end;
+        final int priority;
+
+        Node left;
+        Node right;
+        CustomTime maxEnd;
+        CustomTime minEnd;
+
+        Node(Task task, int priority) {
+            this.id = task.getId();
+            this.task = task;
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.priority = priority;
+            this.maxEnd = this.end;
+            this.minEnd = this.end;
+        }
+    }
+
+    /**
+     * Properties
+     */
+    private Node _root;
+    private Map<Integer, Node> _nodesById;
+    private Random _random;
+
+    public TaskIntervalIndex() {
+        this._root = null;
+        this._nodesById = new HashMap<>();
+        this._random = new Random();
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. Update Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Indexes the Task under its current interval, replacing any interval it was
+     * previously indexed under. Tasks without a start or end time are removed
+     * from the index instead.
+     */
+    public void put(Task task) {
+        this.remove(task.getId());
+        if (task.getStartTime() == null || task.getEndTime() == null) {
+            return;
+        }
+
+        Node node = new Node(task, this._random.nextInt());
+        this._root = this.insert(this._root, node);
+        this._nodesById.put(node.id, node);
+    }
+
+    public void remove(int id) {
+        Node node = this._nodesById.remove(id);
+        if (node != null) {
+            this._root = this.delete(this._root, node);
+        }
+    }
+
+    public void clear() {
+        this._root = null;
+        this._nodesById.clear();
+    }
+
+    public int size() {
+        return this._nodesById.size();
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. Query Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Returns the Tasks whose interval overlaps the given one, in order of start
+     * time. Intervals that only touch at an endpoint do not overlap.
+     */
+    public List<Task> findOverlapping(CustomTime start, CustomTime end) {
+        List<Task> results = new ArrayList<>();
+        this.collectOverlapping(this._root, start, end, results);
+        return results;
+    }
+
+    /**
+     * Returns whether any Task overlaps the given interval, stopping at the first
+     * one found.
+     */
+    public boolean hasOverlapping(CustomTime start, CustomTime end) {
+        Node node = this._root;
+        while (node != null) {
+            if (node.maxEnd.compareTo(start) <= 0) {
+                return false;
+            }
+            if (overlaps(node, start, end)) {
+                return true;
+            }
+            // Anything overlapping on the right would have to start before the end
+            if (node.left != null && node.left.maxEnd.compareTo(start) > 0) {
+                node = node.left;
+            } else if (node.start.compareTo(end) < 0) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the Tasks that start no earlier than <code>start</code> and end no
+     * later than <code>end</code>, in order of start time. A null bound is
+     * treated as unbounded.
+     */
+    public List<Task> findWithin(CustomTime start, CustomTime end) {
+        List<Task> results = new ArrayList<>();
+        this.collectWithin(this._root, start, end, results);
+        return results;
+    }
+
+    /**
+     * Returns the latest end time of all indexed Tasks.
+     */
+    public Optional<CustomTime> getLatestEndTime() {
+        return this._root == null ? Optional.empty() : Optional.of(this._root.maxEnd);
+    }
+
+    private void collectOverlapping(Node node, CustomTime start, CustomTime end, List<Task> results) {
+        if (node == null || node.maxEnd.compareTo(start) <= 0) {
+            return;
+        }
+        this.collectOverlapping(node.left, start, end, results);
+        if (overlaps(node, start, end)) {
+            results.add(node.task);
+        }
+        // Everything on the right starts no earlier than this node
+        if (node.start.compareTo(end) < 0) {
+            this.collectOverlapping(node.right, start, end, results);
+        }
+    }
+
+    private void collectWithin(Node node, CustomTime start, CustomTime end, List<Task> results) {
+        if (node == null || (end != null && node.minEnd.compareTo(end) > 0)) {
+            return;
+        }
+        boolean startSatisfies = start == null || node.start.compareTo(start) >= 0;
+        if (startSatisfies) {
+            this.collectWithin(node.left, start, end, results);
+            if (end == null || node.end.compareTo(end) <= 0) {
+                results.add(node.task);
+            }
+        }
+        this.collectWithin(node.right, start, end, results);
+    }
+
+    private static boolean overlaps(Node node, CustomTime start, CustomTime end) {
+        return node.end.compareTo(start) > 0 && node.start.compareTo(end) < 0;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // III. Treap Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    private Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (compare(node, root) < 0) {
+            root.left = this.insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = this.insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        update(root);
+        return root;
+    }
+
+    private Node delete(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        int comparison = compare(node, root);
+        if (comparison < 0) {
+            root.left = this.delete(root.left, node);
+        } else if (comparison > 0) {
+            root.right = this.delete(root.right, node);
+        } else {
+            return merge(root.left, root.right);
+        }
+        update(root);
+        return root;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.maxEnd = node.end;
+        node.minEnd = node.end;
+        for (Node child : new Node[] { node.left, node.right }) {
+            if (child == null) {
+                continue;
+            }
+            if (child.maxEnd.compareTo(node.maxEnd) > 0) {
+                node.maxEnd = child.maxEnd;
+            }
+            if (child.minEnd.compareTo(node.minEnd) < 0) {
+                node.minEnd = child.minEnd;
+            }
+        }
+    }
+
+    private static int compare(Node node1, Node node2) {
+        int comparison = node1.start.compareTo(node2.start);
+        return comparison != 0 ? comparison : Integer.compare(node1.id, node2.id);
+    }
+}
@@ -0,0 +1,152 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import shared.Task;
+
+/**
+ * Append-only log of the write operations performed on Storage since the last
+ * snapshot of the data file was taken.
+ *
+ * Records are buffered in memory as they happen and appended to the journal file
+ * on the next autosave, so that every mutation only costs I/O proportional to its
+ * own size. The journal is replayed on top of the snapshot when reading from disk,
+ * and truncated whenever Storage compacts it into a new snapshot.
+ *
+ * @@author A0127357B
+ */
+public class TaskJournal {
+
+    /**
+     * Constants
+     */
+    private static final char RECORD_SAVE = 'S';
+    private static final char RECORD_DELETE = 'D';
+    private static final char RECORD_UNDELETE = 'U';
+    private static final char RECORD_CLEAR = 'C';
+    private static final char DELIMITER_RECORD = ',';
+    private static final int INDEX_RECORD_PAYLOAD = 2;
+
+    /**
+     * Properties
+     */
+    private List<String> _pendingRecords;
+    private int _recordCount;
+
+    public TaskJournal() {
+        this._pendingRecords = new ArrayList<>();
+        this._recordCount = 0;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. Recording Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    public void recordSave(Task task) {
+        this.append(RECORD_SAVE, task.encodeTaskToString());
+    }
+
+    public void recordDelete(int id) {
+        this.append(RECORD_DELETE, Integer.toString(id));
+    }
+
+    public void recordUndelete(int id) {
+        this.append(RECORD_UNDELETE, Integer.toString(id));
+    }
+
+    public void recordClear() {
+        this.append(RECORD_CLEAR, "");
+    }
+
+    private void append(char type, String payload) {
+        this._pendingRecords.add(type + Character.toString(DELIMITER_RECORD) + payload);
+        this._recordCount++;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. Flushing and Compaction
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Returns the buffered records and clears the buffer, so that they can be
+     * appended to the journal file without holding on to Storage.
+     */
+    public List<String> drainPendingRecords() {
+        List<String> records = this._pendingRecords;
+        this._pendingRecords = new ArrayList<>();
+        return records;
+    }
+
+    /**
+     * Puts back records that were drained but could not be written, in front of
+     * any records made since, so that they are written by the next save.
+     */
+    public void restorePendingRecords(List<String> records) {
+        List<String> pendingRecords = new ArrayList<>(records.size() + this._pendingRecords.size());
+        pendingRecords.addAll(records);
+        pendingRecords.addAll(this._pendingRecords);
+        this._pendingRecords = pendingRecords;
+    }
+
+    /**
+     * Starts a new journal once a snapshot including every drained record has
+     * been written. Only the records made since the snapshot was taken are left
+     * to be written, and the journal file should be cleared.
+     */
+    public void markCompacted() {
+        this._recordCount = this._pendingRecords.size();
+    }
+
+    /**
+     * Returns the number of records written since the last snapshot, including
+     * those replayed from disk on startup.
+     */
+    public int getRecordCount() {
+        return this._recordCount;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // III. Replay
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Re-applies the journal records, in order, on top of the snapshot that has
+     * just been loaded into the given storage.
+     *
+     * @param records
+     *            the raw journal lines read from disk
+     */
+    public void replay(List<String> records, Storage storage) {
+        for (String record : records) {
+            if (record.isEmpty()) {
+                continue;
+            }
+            String payload = record.length() > INDEX_RECORD_PAYLOAD ? record.substring(INDEX_RECORD_PAYLOAD) : "";
+
+            switch (record.charAt(0)) {
+                case RECORD_SAVE:
+                    storage.replaySave(Task.decodeTaskFromString(payload));
+                    break;
+                case RECORD_DELETE:
+                    storage.replayDelete(Integer.parseInt(payload));
+                    break;
+                case RECORD_UNDELETE:
+                    storage.replayUndelete(Integer.parseInt(payload));
+                    break;
+                case RECORD_CLEAR:
+                    storage.replayClear();
+                    break;
+                default:
+                    assert false;
+            }
+            this._recordCount++;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package storage;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import shared.Task;
+
+/**
+ * Inverted index over the words in Task names, used to narrow down the Tasks
+ * that PowerSearch needs to score.
+ *
+ * PowerSearch matches words that contain the characters of a query word in
+ * order, but not necessarily next to each other, so the index is keyed on
+ * ordered character pairs rather than on contiguous n-grams: a word such as
+ * "meeting" is indexed under "me", "mt", "eg" and so on. A Task can only match
+ * a query word if its name is indexed under every consecutive pair of that word,
+ * so intersecting the postings of those pairs gives a small superset of the
+ * matches. Single characters are indexed as well, for one letter query words.
+ *
+ * Only word characters (ASCII letters, digits and underscores) are indexed, and
+ * case is ignored, following the word boundaries and case folding of the
+ * PowerSearch pattern.
+ *
+ * @@author A0127357B
+ */
+public class TaskNameIndex {
+
+    /**
+     * Constants
+     */
+    private static final int COUNT_WORD_CHARACTERS = 37;
+    private static final int INDEX_UNIGRAM_BASE = COUNT_WORD_CHARACTERS * COUNT_WORD_CHARACTERS;
+    private static final int COUNT_KEYS = INDEX_UNIGRAM_BASE + COUNT_WORD_CHARACTERS;
+    private static final int INDEX_NOT_WORD_CHARACTER = -1;
+
+    /**
+     * Properties
+     */
+    private BitSet[] _postings;
+    private Map<Integer, BitSet> _keysById;
+
+    public TaskNameIndex() {
+        this._postings = new BitSet[COUNT_KEYS];
+        this._keysById = new HashMap<>();
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // I. Update Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Indexes the Task under its current name, replacing the name it was
+     * previously indexed under.
+     */
+    public void put(Task task) {
+        this.remove(task.getId());
+
+        BitSet keys = getKeys(task.getTaskName());
+        keys.stream().forEach(key -> this.getPosting(key).set(task.getId()));
+        this._keysById.put(task.getId(), keys);
+    }
+
+    public void remove(int id) {
+        BitSet keys = this._keysById.remove(id);
+        if (keys != null) {
+            keys.stream().forEach(key -> this._postings[key].clear(id));
+        }
+    }
+
+    public void clear() {
+        this._postings = new BitSet[COUNT_KEYS];
+        this._keysById.clear();
+    }
+
+    private BitSet getPosting(int key) {
+        if (this._postings[key] == null) {
+            this._postings[key] = new BitSet();
+        }
+        return this._postings[key];
+    }
+
+    /**
+     * Returns the keys of every ordered pair of characters, and every single
+     * character, within each word of the name.
+     */
+    private static BitSet getKeys(String name) {
+        BitSet keys = new BitSet(COUNT_KEYS);
+        if (name == null) {
+            return keys;
+        }
+
+        boolean[] seenInWord = new boolean[COUNT_WORD_CHARACTERS];
+        for (int i = 0; i < name.length(); i++) {
+            int character = indexOf(name.charAt(i));
+            if (character == INDEX_NOT_WORD_CHARACTER) {
+                // Start of a new word
+                seenInWord = new boolean[COUNT_WORD_CHARACTERS];
+                continue;
+            }
+
+            for (int previous = 0; previous < COUNT_WORD_CHARACTERS; previous++) {
+                if (seenInWord[previous]) {
+                    keys.set(previous * COUNT_WORD_CHARACTERS + character);
+                }
+            }
+            keys.set(INDEX_UNIGRAM_BASE + character);
+            seenInWord[character] = true;
+        }
+        return keys;
+    }
+
+    private static int indexOf(char character) {
+        if (character >= 'a' && character <= 'z') {
+            return character - 'a';
+        }
+        if (character >= 'A' && character <= 'Z') {
+            return character - 'A';
+        }
+        if (character >= '0' && character <= '9') {
+            return 26 + character - '0';
+        }
+        if (character == '_') {
+            return 36;
+        }
+        return INDEX_NOT_WORD_CHARACTER;
+    }
+
+    // ----------------------------------------------------------------------------------------
+    //
+    // II. Query Methods
+    //
+    // ----------------------------------------------------------------------------------------
+
+    /**
+     * Returns the IDs of the Tasks whose names may contain a word matching any
+     * of the query words, or null if the query cannot be answered from the index,
+     * in which case every Task is a candidate.
+     *
+     * @param queryWords
+     *            the words of the query, as split by PowerSearch
+     */
+    public BitSet findCandidates(String[] queryWords) {
+        BitSet candidates = new BitSet();
+        for (String word : queryWords) {
+            BitSet wordCandidates = this.findCandidates(word);
+            if (wordCandidates == null) {
+                return null;
+            }
+            candidates.or(wordCandidates);
+        }
+        return candidates;
+    }
+
+    private BitSet findCandidates(String word) {
+        // Empty words match everything, and other characters carry regex meaning
+        if (word.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (indexOf(word.charAt(i)) == INDEX_NOT_WORD_CHARACTER) {
+                return null;
+            }
+        }
+
+        if (word.length() == 1) {
+            return this.copyOfPosting(INDEX_UNIGRAM_BASE + indexOf(word.charAt(0)));
+        }
+
+        BitSet candidates = null;
+        for (int i = 1; i < word.length(); i++) {
+            int key = indexOf(word.charAt(i - 1)) * COUNT_WORD_CHARACTERS + indexOf(word.charAt(i));
+            if (candidates == null) {
+                candidates = this.copyOfPosting(key);
+            } else if (this._postings[key] == null) {
+                return new BitSet();
+            } else {
+                candidates.and(this._postings[key]);
+            }
+        }
+        return candidates;
+    }
+
+    private BitSet copyOfPosting(int key) {
+        return this._postings[key] == null ? new BitSet() : (BitSet) this._postings[key].clone();
+    }
+}
@@ -0,0 +1,102 @@
+package storage;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import shared.Task;
+
+/**
+ * Keeps the Tasks in Storage sorted in the order they are displayed in, as
+ * defined by TaskPriorityComparator, so that the full list does not need to be
+ * re-sorted after every write.
+ *
+ * Tasks held by Storage are never modified in place, so a Task keeps its place
+ * in the order for as long as it is in the index. A modified Task is a new
+ * Task, which is put in place of the one stored under its ID in O(log n).
+ *
+ * The order is held in a PersistentTree. The list handed out is a view over the
+ * tree as it was at the time, so it is neither copied nor changed by later
+ * writes, and can be read from any thread.
+ *
+ * @@author A0127357B
+ */
+public class TaskOrderIndex {
+
+    /**
+     * Constants
+     */
+    private static final Comparator<Task> COMPARATOR_ORDER = TaskPriorityComparator.getInstance()
+            .thenComparing(Task::getId);
+
+    /**
+     * Properties
+     */
+    private volatile PersistentTree.Node<Task> _root;
+    private Map<Integer, Task> _tasksById;
+
+    public TaskOrderIndex() {
+        this._root = null;
+        this._tasksById = new HashMap<>();
+    }
+
+    /**
+     * Puts the Task in its place in the order, in place of the Task previously
+     * stored under its ID.
+     */
+    public void put(Task task) {
+        this.remove(task.getId());
+
+        this._root = PersistentTree.put(this._root, task, other -> COMPARATOR_ORDER.compare(task, other));
+        this._tasksById.put(task.getId(), task);
+    }
+
+    public void remove(int id) {
+        Task task = this._tasksById.remove(id);
+        if (task != null) {
+            this._root = PersistentTree.remove(this._root, other -> COMPARATOR_ORDER.compare(task, other));
+        }
+    }
+
+    public void clear() {
+        this._root = null;
+        this._tasksById.clear();
+    }
+
+    /**
+     * Returns the Tasks in display order, as an unmodifiable view of the order
+     * at the time of the call. Getting the Task at an index costs O(log n).
+     */
+    public List<Task> getOrderedTasks() {
+        return new OrderedView(this._root);
+    }
+
+    private static final class OrderedView extends AbstractList<Task> {
+        private final PersistentTree.Node<Task> _root;
+
+        private OrderedView(PersistentTree.Node<Task> root) {
+            this._root = root;
+        }
+
+        @Override public Task get(int index) {
+            if (index < 0 || index >= this.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+            }
+            return PersistentTree.getAt(this._root, index);
+        }
+
+        @Override public int size() {
+            return PersistentTree.sizeOf(this._root);
+        }
+
+        /**
+         * Walks the tree in order, rather than getting each index in turn.
+         */
+        @Override public Iterator<Task> iterator() {
+            return PersistentTree.iterator(this._root);
+        }
+    }
+}
@@ -27,18 +27,36 @@ import shared.ApplicationContext;
  */
 public class UserPreferences {
 
-    private static UserPreferences instance = new UserPreferences();
-
     public static UserPreferences getInstance() {
         return instance;
     }
 
+    /**
+     * Formats that the To-Do data can be stored in
+     */
+    public enum DataFormat {
+        CSV, SNAPSHOT
+    }
+
     /**
      * Properties
      */
     private String todoDataPath;
+    private int startupParallelism;
+    private DataFormat dataFormat = defaultDataFormat;
+    private int deletedTaskLimit = defaultDeletedTaskLimit;
+    private int undoHistoryDepth = defaultUndoHistoryDepth;
+    private long undoHistoryBytes = defaultUndoHistoryBytes;
     private static final String defaultToDoPath = "data/ToDoData.csv";
     private static final String preferencesFileName = "data/user/UserPreferences.json";
+    private static final int defaultStartupParallelism = 0; // use all processors
+    private static final DataFormat defaultDataFormat = DataFormat.CSV;
+    private static final int defaultDeletedTaskLimit = 256;
+    private static final int defaultUndoHistoryDepth = 1000;
+    private static final long defaultUndoHistoryBytes = 16 * 1024 * 1024;
+
+    // Created after the defaults, which the constructor reads
+    private static UserPreferences instance = new UserPreferences();
 
     /**
      * Constructor
@@ -101,6 +119,11 @@ public class UserPreferences {
         File file = new File(this.preferencesFileName);
         file.delete();
         this.todoDataPath = this.defaultToDoPath;
+        this.startupParallelism = defaultStartupParallelism;
+        this.dataFormat = defaultDataFormat;
+        this.deletedTaskLimit = defaultDeletedTaskLimit;
+        this.undoHistoryDepth = defaultUndoHistoryDepth;
+        this.undoHistoryBytes = defaultUndoHistoryBytes;
     }
 
     // ----------------------------------------------------------------------------------------
@@ -115,6 +138,22 @@ public class UserPreferences {
                 JsonSerializationContext context) {
             JsonObject jsonObject = new JsonObject();
             jsonObject.addProperty("todoDataPath", userPreferences.getTodoDataPath());
+            // Only written when changed, so that existing files stay untouched
+            if (userPreferences.startupParallelism != defaultStartupParallelism) {
+                jsonObject.addProperty("startupParallelism", userPreferences.startupParallelism);
+            }
+            if (userPreferences.getDataFormat() != defaultDataFormat) {
+                jsonObject.addProperty("dataFormat", userPreferences.getDataFormat().name().toLowerCase());
+            }
+            if (userPreferences.deletedTaskLimit != defaultDeletedTaskLimit) {
+                jsonObject.addProperty("deletedTaskLimit", userPreferences.deletedTaskLimit);
+            }
+            if (userPreferences.undoHistoryDepth != defaultUndoHistoryDepth) {
+                jsonObject.addProperty("undoHistoryDepth", userPreferences.undoHistoryDepth);
+            }
+            if (userPreferences.undoHistoryBytes != defaultUndoHistoryBytes) {
+                jsonObject.addProperty("undoHistoryBytes", userPreferences.undoHistoryBytes);
+            }
             return jsonObject;
         }
     }
@@ -172,10 +211,39 @@ public class UserPreferences {
             final String toDoDataPath = jsonDataFileName.getAsString();
             UserPreferences userPreferences = UserPreferences.this;
             userPreferences.setTodoDataPath(toDoDataPath);
+
+            final JsonElement jsonStartupParallelism = jsonObject.get("startupParallelism");
+            userPreferences.setStartupParallelism(jsonStartupParallelism == null
+                    ? defaultStartupParallelism : jsonStartupParallelism.getAsInt());
+
+            final JsonElement jsonDataFormat = jsonObject.get("dataFormat");
+            userPreferences.setDataFormat(jsonDataFormat == null
+                    ? defaultDataFormat : parseDataFormat(jsonDataFormat.getAsString()));
+
+            final JsonElement jsonDeletedTaskLimit = jsonObject.get("deletedTaskLimit");
+            userPreferences.setDeletedTaskLimit(jsonDeletedTaskLimit == null
+                    ? defaultDeletedTaskLimit : jsonDeletedTaskLimit.getAsInt());
+
+            final JsonElement jsonUndoHistoryDepth = jsonObject.get("undoHistoryDepth");
+            userPreferences.setUndoHistoryDepth(jsonUndoHistoryDepth == null
+                    ? defaultUndoHistoryDepth : jsonUndoHistoryDepth.getAsInt());
+
+            final JsonElement jsonUndoHistoryBytes = jsonObject.get("undoHistoryBytes");
+            userPreferences.setUndoHistoryBytes(jsonUndoHistoryBytes == null
+                    ? defaultUndoHistoryBytes : jsonUndoHistoryBytes.getAsLong());
             return userPreferences;
         }
     }
 
+    private DataFormat parseDataFormat(String dataFormat) {
+        for (DataFormat format : DataFormat.values()) {
+            if (format.name().equalsIgnoreCase(dataFormat)) {
+                return format;
+            }
+        }
+        return defaultDataFormat;
+    }
+
     /**
      * Read user preferences data from disk in json format.
      *
@@ -226,4 +294,66 @@ public class UserPreferences {
     public void setTodoDataPath(String pathName) {
         this.todoDataPath = pathName;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the number of threads used to decode the data file on startup,
+     * which defaults to the number of available processors.
+     */
+    public int getStartupParallelism() {
+        if (this.startupParallelism <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return this.startupParallelism;
+    }
+
+    public void setStartupParallelism(int startupParallelism) {
+        this.startupParallelism = startupParallelism;
+    }
+
+    /**
+     * Returns the format that the To-Do data is written in. Data in the other
+     * format is still read, and converted on the next write.
+     */
+    public DataFormat getDataFormat() {
+        return this.dataFormat;
+    }
+
+    public void setDataFormat(DataFormat dataFormat) {
+        this.dataFormat = dataFormat;
+    }
+
+    /**
+     * Returns how many deleted tasks are kept in memory before those that can no
+     * longer be restored by undo or redo are evicted.
+     */
+    public int getDeletedTaskLimit() {
+        return this.deletedTaskLimit;
+    }
+
+    public void setDeletedTaskLimit(int deletedTaskLimit) {
+        this.deletedTaskLimit = deletedTaskLimit;
+    }
+
+    /**
+     * Returns the maximum number of operations that can be undone.
+     */
+    public int getUndoHistoryDepth() {
+        return this.undoHistoryDepth;
+    }
+
+    public void setUndoHistoryDepth(int undoHistoryDepth) {
+        this.undoHistoryDepth = undoHistoryDepth;
+    }
+
+    /**
+     * Returns roughly how much memory the operations that can be undone may
+     * hold on to, in bytes.
+     */
+    public long getUndoHistoryBytes() {
+        return this.undoHistoryBytes;
+    }
+
+    public void setUndoHistoryBytes(long undoHistoryBytes) {
+        this.undoHistoryBytes = undoHistoryBytes;
+    }
+}
@@ -23,6 +23,7 @@ import skeleton.UserInterfaceSpec;
 import ui.controller.CommandBarController;
 import ui.controller.HeaderBarController;
 import ui.controller.NotificationToastController;
+import ui.view.TaskListDisplay;
 import ui.view.View;
 
 /**
@@ -78,6 +79,7 @@ public class UserInterface implements UserInterfaceSpec {
     private AnchorPane _viewWrapper;
     private AnchorPane _notification;
     private NotificationToastController _notificationController;
+    private TaskListDisplay _taskListDisplay;
 
     private UserInterface() {
     }
@@ -113,6 +115,9 @@ public class UserInterface implements UserInterfaceSpec {
         this.registerCommandBar();
 
         this.registerNotificationToast();
+
+        // The task list is kept from one view to the next
+        this._taskListDisplay = new TaskListDisplay();
     }
 
     private void initializeFonts() {
@@ -240,6 +245,11 @@ public class UserInterface implements UserInterfaceSpec {
         this._mainContainer.getChildren().add(notificationContainer);
     }
 
+    public TaskListDisplay getTaskListDisplay() {
+        assert this._taskListDisplay != null;
+        return this._taskListDisplay;
+    }
+
     /***
      * The method will retrieve the display component which is constructed by the View Object and
      * attached it to the current display
@@ -298,4 +308,9 @@ public class UserInterface implements UserInterfaceSpec {
     public void setHeaderTitle(String title) {
         this._headerBarController.setTitle(title);
     }
+
+    @Override
+    public void setBusy(boolean isBusy) {
+        this._headerBarController.setBusy(isBusy);
+    }
 }
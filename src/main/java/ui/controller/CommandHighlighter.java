@@ -0,0 +1,286 @@
+package ui.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.fxmisc.richtext.StyleSpans;
+import org.fxmisc.richtext.StyleSpansBuilder;
+
+import logic.CommandParser;
+import logic.parser.RegexUtils;
+
+/**
+ * Works out the highlighting of the command input field, in four stages: the instruction, the start time, the end
+ * time and the priority. Each stage searches from where the previous keyword ended, except the priority, which
+ * searches from the start.
+ *
+ * The result of each stage is kept along with how much of the text it depends on, found by checking whether the
+ * search would have ended the same way had the text been cut off there. When the text is edited, a stage whose result
+ * only depends on the text before the edit is reused without matching again, so typing at the end of a long command
+ * only matches the stages after the last keyword.
+ *
+ * The time patterns check that they are not between quotes by looking ahead to the end of the text, which would make
+ * every match depend on the whole text. They are matched without that check, and it is made separately afterwards.
+ *
+ * Not thread-safe; CommandBarController only calls it from its highlighting thread.
+ *
+ * @@author A0127046L
+ */
+public class CommandHighlighter {
+
+    /**
+     * Constants
+     */
+    private static final String STYLE_CLASS_INSTRUCTION = "command__instruction";
+    private static final String STYLE_CLASS_START_DATE = "command__start-date";
+    private static final String STYLE_CLASS_END_DATE = "command__end-date";
+    private static final String STYLE_CLASS_START_TIME = "command__start-time";
+    private static final String STYLE_CLASS_END_TIME = "command__end-time";
+    private static final String STYLE_CLASS_NORMAL = "command__normal-text";
+    private static final String STYLE_CLASS_PRIORITY = "command__priority";
+
+    private static final String[] MATCHER_GROUPS_DATE = {
+            CommandParser.MATCHER_GROUP_RELATIVE_TIME,
+            CommandParser.MATCHER_GROUP_DAY_OF_WEEK,
+            CommandParser.MATCHER_GROUP_DATE
+    };
+
+    private static final int STAGE_INSTRUCTION = 0;
+    private static final int STAGE_START_TIME = 1;
+    private static final int STAGE_END_TIME = 2;
+    private static final int STAGE_PRIORITY = 3;
+    private static final int COUNT_STAGES = 4;
+
+    // The result of a stage that depends on the whole text
+    private static final int DEPENDS_ON_ALL = Integer.MAX_VALUE;
+
+    /**
+     * Properties
+     */
+    private final Pattern[] _patterns;
+    private final boolean[] _isQuoteChecked;
+
+    private String _lastText;
+    private StageResult[] _lastResults;
+    private StyleSpans<Collection<String>> _lastHighlighting;
+
+    // Only read by tests, to check that stages are reused
+    private long _matchedStageCount;
+
+    /**
+     * The keywords highlighted by one stage, and the text it depends on
+     */
+    private static class StageResult {
+        private final int _from;
+        private final boolean _isFound;
+        private final int _matchEnd;
+        private final int _keywordEnd;
+        private final int _dependencyEnd;
+        private final List<Span> _spans;
+
+        private StageResult(int from, boolean isFound, int matchEnd, int keywordEnd, int dependencyEnd,
+                            List<Span> spans) {
+            this._from = from;
+            this._isFound = isFound;
+            this._matchEnd = matchEnd;
+            this._keywordEnd = keywordEnd;
+            this._dependencyEnd = dependencyEnd;
+            this._spans = spans;
+        }
+    }
+
+    private static class Span {
+        private final int _start;
+        private final int _end;
+        private final String _styleClass;
+
+        private Span(int start, int end, String styleClass) {
+            this._start = start;
+            this._end = end;
+            this._styleClass = styleClass;
+        }
+    }
+
+    public CommandHighlighter(CommandParser parser) {
+        this._patterns = new Pattern[COUNT_STAGES];
+        this._patterns[STAGE_INSTRUCTION] = parser.getInstructionPattern();
+        this._patterns[STAGE_START_TIME] = RegexUtils.withoutQuoteCheck(parser.getStartTimePattern());
+        this._patterns[STAGE_END_TIME] = RegexUtils.withoutQuoteCheck(parser.getEndTimePattern());
+        this._patterns[STAGE_PRIORITY] = parser.getPriorityPattern();
+
+        this._isQuoteChecked = new boolean[COUNT_STAGES];
+        this._isQuoteChecked[STAGE_START_TIME] = true;
+        this._isQuoteChecked[STAGE_END_TIME] = true;
+    }
+
+    /**
+     * Works out the highlighting of the text, reusing what it can from the previous text.
+     *
+     * @param text text that is going to be processed as the highlight effect
+     * @return the style of each part of the text
+     */
+    public StyleSpans<Collection<String>> computeHighlighting(String text) {
+        if (text.equals(this._lastText)) {
+            return this._lastHighlighting;
+        }
+
+        int unchangedLength = this._lastText == null ? 0 : commonPrefixLength(this._lastText, text);
+        StageResult[] results = new StageResult[COUNT_STAGES];
+
+        int keywordEnd = 0;
+        for (int stage = 0; stage < COUNT_STAGES; stage++) {
+            int from = stage == STAGE_PRIORITY ? 0 : keywordEnd;
+            StageResult cached = this._lastResults == null ? null : this._lastResults[stage];
+
+            if (this.canReuse(stage, cached, text, from, unchangedLength)) {
+                results[stage] = cached;
+            } else {
+                results[stage] = this.match(stage, text, from, keywordEnd);
+                this._matchedStageCount++;
+            }
+            keywordEnd = results[stage]._keywordEnd;
+
+            // Must have a valid instruction before the rest gets highlighted
+            if (stage == STAGE_INSTRUCTION && !results[stage]._isFound) {
+                break;
+            }
+        }
+
+        StyleSpans<Collection<String>> highlighting = buildStyleSpans(text, results);
+        this._lastText = text;
+        this._lastResults = results;
+        this._lastHighlighting = highlighting;
+        return highlighting;
+    }
+
+    private boolean canReuse(int stage, StageResult cached, String text, int from, int unchangedLength) {
+        if (cached == null || cached._from != from || cached._dependencyEnd > unchangedLength) {
+            return false;
+        }
+        // Text after the edit decides whether the match is between quotes
+        return !cached._isFound || !this._isQuoteChecked[stage] || RegexUtils.isOutsideQuotes(text, cached._matchEnd);
+    }
+
+    private StageResult match(int stage, String text, int from, int keywordEnd) {
+        Pattern pattern = this._patterns[stage];
+        Matcher matcher = pattern.matcher(text);
+
+        // Skip matches between quotes, as the lookahead taken out of the pattern would
+        boolean hasSkippedMatch = false;
+        boolean isFound = matcher.find(from);
+        while (isFound && this._isQuoteChecked[stage] && !RegexUtils.isOutsideQuotes(text, matcher.end())) {
+            hasSkippedMatch = true;
+            isFound = matcher.start() < text.length() && matcher.find(matcher.start() + 1);
+        }
+
+        if (!isFound) {
+            return new StageResult(from, false, -1, keywordEnd, DEPENDS_ON_ALL, Collections.emptyList());
+        }
+
+        int dependencyEnd = hasSkippedMatch || matcher.hitEnd()
+                ? DEPENDS_ON_ALL
+                : findDependencyEnd(pattern, text, from, matcher.start(), matcher.end());
+
+        List<Span> spans = new ArrayList<>();
+        switch (stage) {
+            case STAGE_INSTRUCTION:
+                if (matcher.group(CommandParser.MATCHER_GROUP_INSTRUCTION) != null) {
+                    spans.add(new Span(matcher.start(), matcher.end(), STYLE_CLASS_INSTRUCTION));
+                }
+                keywordEnd = matcher.end();
+                break;
+            case STAGE_START_TIME:
+            case STAGE_END_TIME:
+                keywordEnd = addTimeSpans(matcher, spans, stage == STAGE_START_TIME, keywordEnd);
+                break;
+            case STAGE_PRIORITY:
+                int priorityStart = matcher.start(CommandParser.MATCHER_GROUP_PRIORITY);
+                int priorityEnd = matcher.end(CommandParser.MATCHER_GROUP_PRIORITY);
+                spans.add(new Span(priorityStart, priorityEnd, STYLE_CLASS_PRIORITY));
+                keywordEnd = priorityEnd;
+                break;
+            default:
+                assert false;
+        }
+        return new StageResult(from, true, matcher.end(), keywordEnd, dependencyEnd, spans);
+    }
+
+    private static int addTimeSpans(Matcher timeMatcher, List<Span> spans, boolean isStart, int keywordEnd) {
+        String dateStyle = isStart ? STYLE_CLASS_START_DATE : STYLE_CLASS_END_DATE;
+        String timeStyle = isStart ? STYLE_CLASS_START_TIME : STYLE_CLASS_END_TIME;
+
+        for (String matcherGroup : MATCHER_GROUPS_DATE) {
+            if (timeMatcher.group(matcherGroup) == null) {
+                continue;
+            }
+            int dateEnd = timeMatcher.end(matcherGroup);
+            spans.add(new Span(timeMatcher.start(matcherGroup), dateEnd, dateStyle));
+            keywordEnd = dateEnd;
+
+            if (timeMatcher.group(CommandParser.MATCHER_GROUP_TIME_OF_DAY) != null) {
+                int timeEnd = timeMatcher.end(CommandParser.MATCHER_GROUP_TIME_OF_DAY);
+                spans.add(new Span(timeMatcher.start(CommandParser.MATCHER_GROUP_TIME_OF_DAY), timeEnd, timeStyle));
+                keywordEnd = timeEnd;
+            }
+            break;
+        }
+        return keywordEnd;
+    }
+
+    /**
+     * Finds a length of text, from the end of the match, that the search never read past, so that the search ends
+     * the same way whatever follows. Searching text that has been cut off marks the matcher as having hit the end if
+     * the search needed any more of it.
+     */
+    private static int findDependencyEnd(Pattern pattern, String text, int from, int matchStart, int matchEnd) {
+        int extra = 1;
+        while (matchEnd + extra < text.length()) {
+            Matcher matcher = pattern.matcher(text.subSequence(0, matchEnd + extra));
+            if (matcher.find(from) && !matcher.hitEnd()) {
+                assert matcher.start() == matchStart && matcher.end() == matchEnd;
+                return matchEnd + extra;
+            }
+            extra *= 2;
+        }
+        // The search of the whole text did not hit its end
+        return text.length();
+    }
+
+    private static StyleSpans<Collection<String>> buildStyleSpans(String text, StageResult[] results) {
+        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+        int lastKeywordEnd = 0;
+        for (StageResult result : results) {
+            if (result == null) {
+                break;
+            }
+            for (Span span : result._spans) {
+                // Fill in previous non-highlighted part
+                spansBuilder.add(Collections.singleton(STYLE_CLASS_NORMAL), span._start - lastKeywordEnd);
+                spansBuilder.add(Collections.singleton(span._styleClass), span._end - span._start);
+                lastKeywordEnd = span._end;
+            }
+        }
+        spansBuilder.add(Collections.singleton(STYLE_CLASS_NORMAL), text.length() - lastKeywordEnd);
+        return spansBuilder.create();
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the number of stages matched against the text rather than reused, for tests
+     */
+    long getMatchedStageCount() {
+        return this._matchedStageCount;
+    }
+}
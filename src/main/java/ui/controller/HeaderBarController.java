@@ -2,6 +2,7 @@ package ui.controller;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 
 /**
  * @@author A0127046L
@@ -9,6 +10,7 @@ import javafx.scene.control.Label;
 public class HeaderBarController {
 
     @FXML private Label _titleLabel;
+    @FXML private ProgressIndicator _busyIndicator;
 
     @FXML public void initialize() {
 
@@ -18,5 +20,9 @@ public class HeaderBarController {
         this._titleLabel.setText(title);
     }
 
+    public void setBusy(boolean isBusy) {
+        this._busyIndicator.setVisible(isBusy);
+    }
+
 }
 
@@ -0,0 +1,163 @@
+package ui.view;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListView;
+import shared.Command;
+import shared.Resources;
+import shared.Task;
+import shared.TaskListChange;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * TaskListDisplay holds the ListView that shows the task list, together with what it last showed. One is created by
+ * the UserInterface, and every TaskListView shows its tasks through it, so the ListView keeps its cells and their
+ * loaded graphics from one command to the next.
+ *
+ * Only the items that differ from those already shown are replaced, so only the cells whose tasks changed are
+ * repainted. When the logic has worked out the change from the last list, it is applied directly; otherwise the range
+ * between what the old and new lists have in common is replaced. A cell only shows a date heading when its task is not
+ * on the same date as the one before it, so the unchanged item after each change is replaced as well.
+ *
+ * Cells outlive the command that created them, so they read the last command and the index of the new task from here
+ * on every update.
+ *
+ * @@author A0127036M
+ */
+public class TaskListDisplay {
+    /**
+     * Constants
+     */
+    private static final String STRING_NAME_TEMPLATE = "TaskList";
+    private static final int LIMIT_PATCH_CHANGES = 64;
+
+    /**
+     * Properties
+     */
+    private final ListView<VisualTask> _listView;
+    private final ObservableList<VisualTask> _observableList;
+    private Command _shownCommand = Command.initialCommand();
+    private int _shownNewTaskIndex;
+    private int _shownGeneration;
+    private TaskListChange _lastAppliedChange;
+
+    /**
+     * Loads the ListView, which must be done on the JavaFX application thread
+     */
+    public TaskListDisplay() {
+        this._observableList = FXCollections.observableArrayList();
+        this._listView = Resources.sharedResources().getComponent(STRING_NAME_TEMPLATE);
+        this._listView.setItems(this._observableList);
+        this._listView.setCellFactory(list -> new TaskListItem(this));
+    }
+
+    /**
+     * Shows the new list of tasks, scrolled to the new task
+     *
+     * @param tasks the tasks to show
+     * @param change how the tasks differ from the tasks shown, or null if that has not been worked out
+     * @param command the command that produced the list
+     * @param newTaskIndex the index of the task to scroll to, and to highlight after an add command
+     */
+    void show(List<Task> tasks, TaskListChange change, Command command, int newTaskIndex) {
+        // Cells read these when they are updated by the change below
+        this._shownCommand = command;
+        this._shownNewTaskIndex = newTaskIndex;
+        this._shownGeneration++;
+
+        if (change != null && this.canPatch(change)) {
+            change.applyTo(this._observableList, (index, task) -> new VisualTask(index + 1, task));
+            change.getNewlyPreceded().forEach(entry -> refreshItem(this._observableList, entry.getNewIndex()));
+            this._lastAppliedChange = change;
+        } else {
+            updateItems(this._observableList, toVisualTasks(tasks));
+        }
+
+        this._listView.scrollTo(newTaskIndex);
+    }
+
+    ListView<VisualTask> getListView() {
+        return this._listView;
+    }
+
+    int size() {
+        return this._observableList.size();
+    }
+
+    Command getShownCommand() {
+        return this._shownCommand;
+    }
+
+    int getShownNewTaskIndex() {
+        return this._shownNewTaskIndex;
+    }
+
+    int getShownGeneration() {
+        return this._shownGeneration;
+    }
+
+    /**
+     * A change can only be applied to the list it was computed from, and only once. A change to many tasks is better
+     * made as one replacement of the range that changed than as many separate list changes.
+     */
+    private boolean canPatch(TaskListChange change) {
+        return change != this._lastAppliedChange
+                && change.getOldSize() == this._observableList.size()
+                && change.size() <= LIMIT_PATCH_CHANGES;
+    }
+
+    /**
+     * Makes the shown items equal to the new items, replacing only the range between the longest common prefix and the
+     * longest common suffix. Tasks are compared by identity, as Storage replaces a task rather than changing it, while
+     * Task.equals only compares IDs.
+     */
+    private static void updateItems(ObservableList<VisualTask> shown, List<VisualTask> items) {
+        int shownSize = shown.size();
+        int itemsSize = items.size();
+
+        int prefix = 0;
+        while (prefix < shownSize && prefix < itemsSize && isSameItem(shown.get(prefix), items.get(prefix))) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (suffix < shownSize - prefix && suffix < itemsSize - prefix
+                && isSameItem(shown.get(shownSize - 1 - suffix), items.get(itemsSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        if (prefix + suffix < shownSize) {
+            shown.remove(prefix, shownSize - suffix);
+        }
+        if (prefix + suffix < itemsSize) {
+            shown.addAll(prefix, items.subList(prefix, itemsSize - suffix));
+        }
+        // The first item after the range now follows a different item
+        if (prefix + suffix < Math.max(shownSize, itemsSize) && suffix > 0) {
+            refreshItem(shown, itemsSize - suffix);
+        }
+    }
+
+    /**
+     * Replaces the item with an equal one, which makes the ListView update its cell even though its task has not
+     * changed
+     */
+    private static void refreshItem(ObservableList<VisualTask> shown, int index) {
+        shown.set(index, new VisualTask(index + 1, shown.get(index).getTask()));
+    }
+
+    /**
+     * Cells take the visual index from their position, so items are the same if they hold the same task
+     */
+    private static boolean isSameItem(VisualTask shown, VisualTask item) {
+        return shown.getTask() == item.getTask();
+    }
+
+    private static List<VisualTask> toVisualTasks(List<Task> tasks) {
+        return IntStream.range(0, tasks.size())
+                .mapToObj(index -> new VisualTask(index + 1, tasks.get(index)))
+                .collect(Collectors.toList());
+    }
+}
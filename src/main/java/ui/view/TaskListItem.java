@@ -21,6 +21,10 @@ import ui.controller.DateFormatterHelper;
  * (Task with both start time and end time)will load TaskListItemDated.fxml while other type of task will
  * use TaskListItemNormal.fxml .
  *
+ * Each cell loads each of the two templates at most once, the first time it needs it, and switches between them as it
+ * is reused for other tasks. ListView only creates enough cells to fill the screen, so scrolling through a long list
+ * never parses FXML.
+ *
  * DateFormatterHelper is used to help determining the date and time presentation.
  *
  * @@author A0127036M
@@ -41,50 +45,85 @@ public class TaskListItem extends ListCell<VisualTask> {
     @FXML private Label _dateLabel;
     @FXML private Rectangle _highlight;
 
+    private CellGraphic _normalGraphic;
+    private CellGraphic _datedGraphic;
+
+    private final TaskListDisplay _display;
     private DateFormatterHelper _df = new DateFormatterHelper();
-    private Command _lastCommand;
-    private int _newTaskIndex;
-    private boolean _canHighlight = true;
+    private int _highlightedGeneration = -1;
+    private FillTransition _highlightTransition;
 
-    public TaskListItem(Command lastCommand, int newTaskIndex) {
-        super();
+    /**
+     * The component tree loaded from one of the templates, together with the components that are updated for each task
+     */
+    private static class CellGraphic {
+        private final AnchorPane _container;
+        private final Label _indexLabel;
+        private final Label _nameLabel;
+        private final Label _priorityLabel;
+        private final Label _timeLabel;
+        private final Label _dateLabel;
+        private final Rectangle _highlight;
+
+        private CellGraphic(String template) {
+            this._container = Resources.sharedResources().getComponent(template);
+            assert this._container != null;
+
+            this._indexLabel = (Label) this._container.lookup("#_indexLabel");
+            this._nameLabel = (Label) this._container.lookup("#_taskNameLabel");
+            this._highlight = (Rectangle) this._container.lookup("#_highlightEffect");
+            this._timeLabel = (Label) this._container.lookup("#_timeLabel");
+            this._priorityLabel = (Label) this._container.lookup("#_priorityIndicator");
+            this._dateLabel = (Label) this._container.lookup("#_dateLabel");
 
-        this._lastCommand = lastCommand ;
-        this._newTaskIndex = newTaskIndex;
+            assert this._indexLabel != null;
+            assert this._nameLabel != null;
+            assert this._highlight != null;
+            assert this._timeLabel != null;
+        }
+    }
 
+    /**
+     * Cells outlive the command that created them, so the last command and the index of the new task are read from
+     * the display on every update rather than passed in here.
+     *
+     * @param display the display whose ListView this cell belongs to
+     */
+    public TaskListItem(TaskListDisplay display) {
+        super();
+        this._display = display;
     }
 
     /***
      * This method link the TaskListItem Class to the corresponding  .fxml file used to display the list content.
      * Having reference to the .fxml file component give us the ability to edit its component attribute to set up
-     * our intended behaviour
+     * our intended behaviour. Each template is only loaded the first time this cell needs it.
      *
      * @param task the task that is going to be checked. Event Task will call TasklistItemDouble.fxml  whereas
      *             other type of task will call TaskListItemNormal.fxml.
      */
     private void updateGraphicPointer(Task task) {
+        CellGraphic graphic;
         if (isSameDate(task)) {
-            this._container = Resources.sharedResources().getComponent(STRING_NAME_TEMPLATE_NO_DATE);
-            assert this._container != null;
-
+            if (this._normalGraphic == null) {
+                this._normalGraphic = new CellGraphic(STRING_NAME_TEMPLATE_NO_DATE);
+            }
+            graphic = this._normalGraphic;
         } else {
-            this._container = Resources.sharedResources().getComponent(STRING_NAME_TEMPLATE_WITH_DATE);
-            assert this._container != null;
-
-            this._dateLabel = (Label) this._container.lookup("#_dateLabel");
-            assert this._dateLabel != null;
+            if (this._datedGraphic == null) {
+                this._datedGraphic = new CellGraphic(STRING_NAME_TEMPLATE_WITH_DATE);
+                assert this._datedGraphic._dateLabel != null;
+            }
+            graphic = this._datedGraphic;
         }
 
-        this._indexLabel = (Label) this._container.lookup("#_indexLabel");
-        this._nameLabel = (Label) this._container.lookup("#_taskNameLabel");
-        this._highlight = (Rectangle) this._container.lookup("#_highlightEffect");
-        this._timeLabel = (Label) this._container.lookup("#_timeLabel");
-        this._priorityLabel = (Label) this._container.lookup("#_priorityIndicator");
-
-        assert this._indexLabel != null;
-        assert this._nameLabel != null;
-        assert this._highlight != null;
-        assert this._timeLabel != null;
+        this._container = graphic._container;
+        this._indexLabel = graphic._indexLabel;
+        this._nameLabel = graphic._nameLabel;
+        this._highlight = graphic._highlight;
+        this._timeLabel = graphic._timeLabel;
+        this._priorityLabel = graphic._priorityLabel;
+        this._dateLabel = graphic._dateLabel;
     }
 
     /***
@@ -97,9 +136,12 @@ public class TaskListItem extends ListCell<VisualTask> {
         super.updateItem(item, empty);
 
         if (empty) {
+            this.stopHighlightAnimation();
             this.setGraphic(null);
         } else {
-            int index = item.getVisualIndex();
+            // The visual index is the position in the list, which is taken from the cell rather than the item, as
+            // items after an inserted or removed task are shifted without being replaced
+            int index = this.getIndex() + 1;
             Task task = item.getTask();
 
             // Update Cell Graphic Container and Link to Container Component
@@ -126,7 +168,8 @@ public class TaskListItem extends ListCell<VisualTask> {
             }
 
             // apply highlight effect to the new task when first displayed;
-            if (isAddCommand(this._lastCommand) && (this.getItem().getVisualIndex() - 1) == this._newTaskIndex ) {
+            if (isAddCommand(this._display.getShownCommand())
+                    && this.getIndex() == this._display.getShownNewTaskIndex()) {
                 this.setHighlightAnimation();
             }
 
@@ -162,17 +205,22 @@ public class TaskListItem extends ListCell<VisualTask> {
         this.getStyleClass().add("indexed-cell");
         this.getStyleClass().add("list-cell");
 
+        // The graphic may have been used for another task before
+        this._nameLabel.setTranslateY(0);
+        this._priorityLabel.setText("");
+        this.stopHighlightAnimation();
+        this._highlight.setFill(Color.WHITE);
     }
 
 
     /***
      * prepare and play the highlight animation to show new task
-     * The highlight effect will only be played the first time the task is displayed.
+     * The highlight effect will only be played the first time the task is displayed after each command.
      */
     private void setHighlightAnimation(){
-        if (_canHighlight) {
+        if (this._highlightedGeneration != this._display.getShownGeneration()) {
 
-            _canHighlight = !_canHighlight;
+            this._highlightedGeneration = this._display.getShownGeneration();
 
             FillTransition highlight = new FillTransition(
                     Duration.millis(1500),
@@ -184,11 +232,23 @@ public class TaskListItem extends ListCell<VisualTask> {
             highlight.setAutoReverse(true);
             highlight.setInterpolator(Interpolator.EASE_BOTH);
             highlight.play();
+            this._highlightTransition = highlight;
 
         }
 
     }
 
+    /***
+     * stop the highlight animation of the last new task, as the cell may now be showing another task.
+     * The rectangle it was filling is reset to white before it is shown again.
+     */
+    private void stopHighlightAnimation() {
+        if (this._highlightTransition != null) {
+            this._highlightTransition.stop();
+            this._highlightTransition = null;
+        }
+    }
+
 
     /***
      * This method prepare the time String to be displayed by utilising DateFormatHelper
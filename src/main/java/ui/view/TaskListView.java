@@ -1,22 +1,25 @@
 package ui.view;
 
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.control.ListView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import shared.Command;
-import shared.Resources;
 import shared.Task;
+import shared.TaskListChange;
+import ui.UserInterface;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * This class manage the structure and the behavior of task list that is called by the user to be displayed.
  * The View contains List of VisualTask which is a pair of Task and its display index.
  *
+ * A new TaskListView is made for every command, but they all show their tasks through the TaskListDisplay of the
+ * UserInterface, which only replaces the items that differ from those already shown.
+ *
  * @@author A0127036M
  */
 public class TaskListView extends View {
@@ -27,7 +30,8 @@ public class TaskListView extends View {
     /**
      * Properties
      */
-    private ObservableList _observableList;
+    private TaskListDisplay _display;
+
     private int _viewIndex;
     private int _newTaskIndex;
 
@@ -40,34 +44,53 @@ public class TaskListView extends View {
         super(data, lastCommand);
     }
 
-    @Override protected void buildContent() {
-
-        List<VisualTask> viewData = (List<VisualTask>) this.getData();
-        _observableList = FXCollections.observableArrayList(viewData);
+    /**
+     * Constructs a new view by patching the shown list with the given change
+     *
+     * @param change how the tasks to show differ from the tasks shown by the last view
+     */
+    public TaskListView(TaskListChange change, Command lastCommand) {
+        super(change, lastCommand);
+    }
 
-        ListView listView = Resources.sharedResources().getComponent("TaskList");
-        listView.setItems(this._observableList);
+    @Override protected void buildContent() {
+        this._display = this.getTaskListDisplay();
+
+        Object data = this.getData();
+        List<Task> tasks;
+        TaskListChange change = null;
+        if (data instanceof TaskListChange) {
+            change = (TaskListChange) data;
+            tasks = change.getNewList();
+        } else {
+            tasks = ((List<VisualTask>) data).stream().map(VisualTask::getTask).collect(Collectors.toList());
+        }
 
         if (this.getLastCommand().getInstruction() == Command.Instruction.ADD) {
-            this._newTaskIndex = obtainNewTaskIndex();
+            if (change != null && change.getInserted().size() == 1) {
+                this._newTaskIndex = change.getInserted().get(0).getNewIndex();
+            } else {
+                this._newTaskIndex = obtainNewTaskIndex(tasks);
+            }
         } else {
             this._newTaskIndex = 0;
         }
 
-        final int highlightIndex = this._newTaskIndex;
-
-        listView.setCellFactory(list -> new TaskListItem(this.getLastCommand(),highlightIndex));
-
-        listView.scrollTo(this._newTaskIndex);
+        this._display.show(tasks, change, this.getLastCommand(), this._newTaskIndex);
         this._viewIndex += this._newTaskIndex;
 
 
-        this.setComponent(listView);
+        this.setComponent(this._display.getListView());
     }
 
+    /**
+     * Called while the View is being constructed, so the display cannot be passed in through the constructor
+     */
+    protected TaskListDisplay getTaskListDisplay() {
+        return UserInterface.getInstance().getTaskListDisplay();
+    }
 
-    private int obtainNewTaskIndex() {
-        List<VisualTask> taskList = this.getData();
+    private int obtainNewTaskIndex(List<Task> taskList) {
 
         int index = 0;
 
@@ -76,10 +99,10 @@ public class TaskListView extends View {
 
         for (int i = 0; i < taskList.size();  i++) {
             if (current == null) {
-                current = taskList.get(i).getTask();
+                current = taskList.get(i);
             } else {
 
-                temp = taskList.get(i).getTask();
+                temp = taskList.get(i);
                 LocalDateTime curCreationTime = current.getCreationTime();
                 LocalDateTime tempCreationTime = temp.getCreationTime();
 
@@ -117,8 +140,7 @@ public class TaskListView extends View {
     }
 
     private boolean canScrollDown() {
-        List<VisualTask> viewData = this.getData();
-        int size = viewData.size() - (this._viewIndex + SCROLL_RANGE);
+        int size = this._display.size() - (this._viewIndex + SCROLL_RANGE);
         return size > 0;
     }
 }
@@ -0,0 +1,99 @@
+package launcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import logic.DecisionEngine;
+import shared.Message;
+import shared.Task;
+import skeleton.DecisionEngineSpec;
+import skeleton.StorageSpec;
+import storage.Storage;
+
+/**
+ * @@author A0127046L
+ */
+public class HeadlessLauncherTest {
+
+    private Storage _storage;
+    private DecisionEngine _decisionEngine;
+    private ByteArrayOutputStream _output;
+
+    @Before public void setUp() {
+        // dependency injection of a Storage that never touches disk
+        this._storage = new Storage() {
+            @Override public void initialise() {
+            }
+
+            @Override public void shutdown() {
+            }
+        };
+        Storage storage = this._storage;
+        this._decisionEngine = new DecisionEngine() {
+            @Override protected StorageSpec<Task> getStorage() {
+                return storage;
+            }
+        };
+        this._output = new ByteArrayOutputStream();
+    }
+
+    private String[] run(String script, boolean isQuiet) throws IOException {
+        DecisionEngineSpec decisionEngine = this._decisionEngine;
+        HeadlessLauncher launcher = new HeadlessLauncher(new BufferedReader(new StringReader(script)),
+                new PrintStream(this._output, true, "UTF-8"), isQuiet) {
+            @Override protected DecisionEngineSpec getDecisionEngine() {
+                return decisionEngine;
+            }
+        };
+        launcher.run();
+
+        // timings differ from run to run
+        return new String(this._output.toByteArray(), StandardCharsets.UTF_8)
+                .replaceAll(", [0-9.]+ ms\\)", ")")
+                .replaceAll("in [0-9.]+ ms \\([0-9]+ commands/s\\)", "in ...")
+                .split("\\r?\\n");
+    }
+
+    @Test public void Script_prints_a_line_for_each_command_and_stops_at_exit() throws IOException {
+        String script = "# a comment\n"
+                + "add buy milk\n"
+                + "add read book\n"
+                + "\n"
+                + "foo bar\n"
+                + "delete 1\n"
+                + "delete 9\n"
+                + "undo\n"
+                + "exit\n"
+                + "add never run\n";
+        String[] lines = this.run(script, false);
+
+        assertEquals(7, lines.length);
+        assertEquals("1: add buy milk (1 tasks)", lines[0]);
+        assertEquals("2: add read book (2 tasks)", lines[1]);
+        assertEquals("3: foo bar (" + Message.UNRECOGNISED + ")", lines[2]);
+        assertEquals("4: delete 1 (1 tasks)", lines[3]);
+        assertTrue(lines[4], lines[4].startsWith("5: delete 9 ("));
+        assertEquals("6: undo (2 tasks)", lines[5]);
+        assertEquals("Ran 7 commands, 2 with errors or warnings, in ...", lines[6]);
+        assertEquals(2, this._storage.getLiveTaskCount());
+    }
+
+    @Test public void Quiet_script_only_prints_errors_and_the_summary() throws IOException {
+        String[] lines = this.run("add buy milk\nfoo bar\nadd read book\n", true);
+
+        assertEquals(2, lines.length);
+        assertEquals("2: foo bar (" + Message.UNRECOGNISED + ")", lines[0]);
+        assertEquals("Ran 3 commands, 1 with errors or warnings, in ...", lines[1]);
+        assertEquals(2, this._storage.getLiveTaskCount());
+    }
+}
@@ -4,10 +4,15 @@ import static org.junit.Assert.*;
 import org.junit.*;
 
 import shared.*;
+import skeleton.StorageSpec;
+import skeleton.WriteHistorySpec;
+import storage.Storage;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @@author A0124772E
@@ -84,4 +89,47 @@ public class DecisionEngineTest {
         assertEquals(task2, expected2);
     }
 
+    @Test
+    public void Batch_is_undone_at_once_and_saved_and_displayed_once() {
+        // dependency injection of a Storage that never touches disk, and a fresh history
+        Storage storage = new Storage() {};
+        WriteHistory history = new WriteHistory(10, Long.MAX_VALUE);
+        int[] displayCount = { 0 };
+        DecisionEngine engine = new DecisionEngine() {
+            @Override protected StorageSpec<Task> getStorage() {
+                return storage;
+            }
+
+            @Override protected WriteHistorySpec getWriteHistory() {
+                return history;
+            }
+
+            @Override protected ExecutionResult displayAllTasks() {
+                displayCount[0]++;
+                return super.displayAllTasks();
+            }
+        };
+
+        List<Command> commands = new ArrayList<>();
+        for (String name : new String[] { name1, name2, "cease fire" }) {
+            Command add = new Command(Command.Instruction.ADD);
+            add.setParameter(Command.ParamName.TASK_NAME, name);
+            commands.add(add);
+        }
+
+        ExecutionResult result = engine.performBatch(commands);
+        assertEquals(3, storage.getLiveTaskCount());
+        assertEquals(3, ((List<?>) result.getData()).size());
+        assertEquals(1, storage.getSaveRequestCount());
+        assertEquals(1, displayCount[0]);
+
+        // one undo takes back the whole batch
+        engine.performCommand(new Command(Command.Instruction.UNDO));
+        assertEquals(0, storage.getLiveTaskCount());
+        assertFalse(history.undo());
+
+        engine.performCommand(new Command(Command.Instruction.REDO));
+        assertEquals(3, storage.getLiveTaskCount());
+    }
+
 }
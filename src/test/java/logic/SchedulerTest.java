@@ -10,6 +10,7 @@ import shared.TemporalRange;
 import storage.Storage;
 
 import java.time.Month;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -134,6 +135,21 @@ public class SchedulerTest {
         assertEquals(this._scheduler.collapseOverlappingRanges(originalRanges), expectedRanges);
     }
 
+    @Test
+    public void Bulk_collision_check_finds_tasks_colliding_with_storage_or_each_other() {
+        this._storage.save(new Task(null, "existing", "", time1, time2));
+
+        Task a = new Task(null, "a", "", time2, time3); // only collides with d
+        Task b = new Task(null, "b", "", time5, time6); // adjacent to g
+        Task d = new Task(null, "d", "", time1, time3); // collides with the existing task
+        Task e = new Task(null, "e", "", null, time2); // has no time range
+        Task f = new Task(null, "f", "", time3, time4);
+        Task g = new Task(null, "g", "", time3, time5);
+        List<Task> tasks = new LinkedList<>(Arrays.asList(a, b, d, e, f, g));
+
+        assertEquals(Arrays.asList(a, d, f, g), this._scheduler.findCollidingTasks(tasks));
+    }
+
     @Test
     public void Collision_check_works_for_disjoint_tasks() {
         this._storage.save(task1);
@@ -0,0 +1,121 @@
+package logic;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import shared.*;
+import storage.Storage;
+
+/**
+ * @@author A0124772E
+ */
+public class WriteHistoryTest {
+    private Storage storage;
+
+    @Before
+    public void setUp() {
+        // dependency injection of a Storage that never touches disk
+        this.storage = new Storage() {};
+    }
+
+    private StorageWriteOperation addOperation(String name) {
+        Command add = new Command(Command.Instruction.ADD);
+        add.setParameter(Command.ParamName.TASK_NAME, name);
+        return new StorageWriteOperation(add, this.storage);
+    }
+
+    @Test
+    public void History_keeps_only_the_latest_operations_up_to_its_depth() {
+        WriteHistory history = new WriteHistory(3, Long.MAX_VALUE);
+        for (int i = 1; i <= 5; i++) {
+            history.addToHistoryAfterExecuting(this.addOperation("task " + i));
+        }
+
+        assertEquals(3, history.getDepth());
+        assertEquals(2, history.getEvictedOpCount());
+        assertTrue(history.undo());
+        assertTrue(history.undo());
+        assertTrue(history.undo());
+        assertFalse(history.undo());
+        assertEquals(2, this.storage.getLiveTaskCount());
+
+        assertTrue(history.redo());
+        assertEquals(3, this.storage.getLiveTaskCount());
+
+        // a new operation discards the operations that could have been redone
+        long retainedBytes = history.getRetainedBytes();
+        history.addToHistoryAfterExecuting(this.addOperation("task 6"));
+        assertEquals(2, history.getDepth());
+        assertTrue(history.getRetainedBytes() < retainedBytes);
+        assertFalse(history.redo());
+    }
+
+    @Test
+    public void History_drops_oldest_operations_beyond_its_byte_budget() {
+        StorageWriteOperation op = this.addOperation("task");
+        WriteHistory history = new WriteHistory(100, 1);
+
+        history.addToHistoryAfterExecuting(op);
+        history.addToHistoryAfterExecuting(this.addOperation("task"));
+
+        // the latest operation is always kept
+        assertEquals(1, history.getDepth());
+        assertEquals(op.getRetainedBytes(), history.getRetainedBytes());
+        assertTrue(history.undo());
+        assertFalse(history.undo());
+    }
+
+    @Test
+    public void Edit_is_undone_and_redone_from_the_changed_fields_only() {
+        WriteHistory history = new WriteHistory(10, Long.MAX_VALUE);
+        history.addToHistoryAfterExecuting(this.addOperation("old name"));
+        int id = this.storage.getAll().get(0).getId();
+        Task.Priority oldPriority = this.storage.get(id).getPriority();
+
+        Command edit = new Command(Command.Instruction.EDIT);
+        edit.setParameter(Command.ParamName.TASK_INDEX, id);
+        edit.setParameter(Command.ParamName.TASK_NAME, "new name");
+        edit.setParameter(Command.ParamName.PRIORITY_VALUE, Task.Priority.HIGH);
+        StorageWriteOperation editOp = new StorageWriteOperation(edit, this.storage);
+        history.addToHistoryAfterExecuting(editOp);
+
+        assertEquals("new name", this.storage.get(id).getTaskName());
+        assertEquals(Task.Priority.HIGH, this.storage.get(id).getPriority());
+
+        assertTrue(history.undo());
+        assertEquals("old name", this.storage.get(id).getTaskName());
+        assertEquals(oldPriority, this.storage.get(id).getPriority());
+
+        assertTrue(history.redo());
+        assertEquals("new name", this.storage.get(id).getTaskName());
+        assertEquals(Task.Priority.HIGH, this.storage.get(id).getPriority());
+    }
+
+    @Test
+    public void Batch_is_undone_and_redone_as_one_operation() {
+        WriteHistory history = new WriteHistory(10, Long.MAX_VALUE);
+        history.addToHistoryAfterExecuting(this.addOperation("before the batch"));
+
+        List<Command> batch = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Command add = new Command(Command.Instruction.ADD);
+            add.setParameter(Command.ParamName.TASK_NAME, "batch task " + i);
+            batch.add(add);
+        }
+        StorageWriteOperation batchOp = new StorageWriteOperation(batch, this.storage);
+        assertNull(history.addToHistoryAfterExecuting(batchOp));
+
+        assertEquals(2, history.getDepth());
+        assertEquals(6, this.storage.getLiveTaskCount());
+        assertEquals(5, batchOp.getReferencedIds().length);
+
+        assertTrue(history.undo());
+        assertEquals(1, this.storage.getLiveTaskCount());
+
+        assertTrue(history.redo());
+        assertEquals(6, this.storage.getLiveTaskCount());
+    }
+}
@@ -130,4 +130,25 @@ public class CustomTimeTest {
         assertThat(nullTime.compareTo(specificDay) > 0, is(true));
         assertThat(nullTime.compareTo(specificTime) > 0, is(true));
     }
+
+    @Test public void CustomTime_arithmetic_crosses_day_boundaries() {
+        CustomTime time = new CustomTime(LocalDate.of(2016, 2, 28), LocalTime.of(23, 30));
+
+        CustomTime later = time.plusMinutes(90);
+        assertThat(later.getDate(), is(equalTo(LocalDate.of(2016, 2, 29))));
+        assertThat(later.getTime(), is(equalTo(LocalTime.of(1, 0))));
+        assertThat(later, is(equalTo(new CustomTime(LocalDate.of(2016, 2, 29), LocalTime.of(1, 0)))));
+        assertThat(time.plusDays(2), is(equalTo(new CustomTime(LocalDate.of(2016, 3, 1), LocalTime.of(23, 30)))));
+        assertThat(time.plusMinutes(-1440).compareTo(time) < 0, is(true));
+    }
+
+    @Test public void CustomTime_difference_counts_whole_minutes_only() {
+        CustomTime time1 = new CustomTime(LocalDate.of(2016, 4, 1), LocalTime.of(9, 0, 30));
+        CustomTime time2 = new CustomTime(LocalDate.of(2016, 4, 1), LocalTime.of(9, 2));
+        CustomTime untimed = new CustomTime(LocalDate.of(2016, 4, 2), null);
+
+        assertThat(CustomTime.difference(time1, time2), is(equalTo(1)));
+        assertThat(CustomTime.difference(time2, time1), is(equalTo(1)));
+        assertThat(CustomTime.difference(time2, untimed), is(equalTo(898)));
+    }
 }
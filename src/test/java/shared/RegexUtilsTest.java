@@ -7,6 +7,7 @@ import java.util.regex.Matcher;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -40,4 +41,12 @@ public class RegexUtilsTest {
         assertTrue(matcher.find());
         assertThat(matcher.group("NUMBER").toLowerCase(), is(equalTo("three")));
     }
+
+    @Test
+    public void RegexUtils_reuses_cached_patterns() {
+        String pattern = "good\\s+(?<MATCH>morning)";
+        assertThat(RegexUtils.cachedCaseInsensitive(pattern),
+                is(sameInstance(RegexUtils.cachedCaseInsensitive(pattern))));
+        assertTrue(RegexUtils.caseInsensitiveMatch(pattern, "GOOD morning").find());
+    }
 }
@@ -0,0 +1,82 @@
+package shared;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @@author A0127046L
+ */
+public class TaskListChangeTest {
+
+    private static Task createTask(int id) {
+        return new Task(id, "task " + id, "", (CustomTime) null, null);
+    }
+
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            tasks.add(createTask(id));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void Single_insertion_in_a_long_list_is_the_only_change() {
+        List<Task> oldList = createTasks(10000);
+        List<Task> newList = new ArrayList<>(oldList);
+        newList.add(5000, createTask(10001));
+
+        TaskListChange change = TaskListChange.between(oldList, newList);
+
+        assertThat(change.size(), is(equalTo(1)));
+        assertThat(change.getInserted().get(0).getTaskId(), is(equalTo(10001)));
+        assertThat(change.getInserted().get(0).getNewIndex(), is(equalTo(5000)));
+    }
+
+    @Test
+    public void Applying_a_change_turns_the_old_list_into_the_new_one() {
+        List<Task> oldList = createTasks(8);
+        Task edited = oldList.get(5).clone();
+        edited.setTaskName("edited");
+        // 2 is removed, 9 is inserted, 7 moves to the front and 6 is replaced by an edited copy
+        List<Task> newList = Arrays.asList(oldList.get(6), oldList.get(0), createTask(9), oldList.get(2),
+                oldList.get(3), oldList.get(4), edited, oldList.get(7));
+
+        TaskListChange change = TaskListChange.between(oldList, newList);
+        assertThat(change.getInserted().size(), is(equalTo(1)));
+        assertThat(change.getRemoved().size(), is(equalTo(1)));
+        assertThat(change.getMoved().size(), is(equalTo(1)));
+        assertThat(change.getUpdated().size(), is(equalTo(1)));
+        assertThat(change.getUpdated().get(0).getTaskId(), is(equalTo(6)));
+
+        List<Task> patched = new ArrayList<>(oldList);
+        change.applyTo(patched, (index, task) -> task);
+        assertThat(patched, is(equalTo(newList)));
+        assertSame(edited, patched.get(6));
+    }
+
+    @Test
+    public void Unchanged_tasks_after_a_change_are_reported_as_newly_preceded() {
+        List<Task> oldList = createTasks(6);
+        Task edited = oldList.get(1).clone();
+        edited.setTaskName("edited");
+        // 2 is replaced by an edited copy, and 4 is removed
+        List<Task> newList = Arrays.asList(oldList.get(0), edited, oldList.get(2), oldList.get(4), oldList.get(5));
+
+        TaskListChange change = TaskListChange.between(oldList, newList);
+        assertThat(change.size(), is(equalTo(2)));
+        assertThat(change.getNewlyPreceded().size(), is(equalTo(2)));
+        assertThat(change.getNewlyPreceded().get(0).getTaskId(), is(equalTo(3)));
+        assertThat(change.getNewlyPreceded().get(0).getNewIndex(), is(equalTo(2)));
+        assertThat(change.getNewlyPreceded().get(1).getTaskId(), is(equalTo(5)));
+        assertThat(change.getNewlyPreceded().get(1).getNewIndex(), is(equalTo(3)));
+    }
+}
@@ -0,0 +1,75 @@
+package storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ *
+ * @@author A0127357B
+ *
+ */
+public class AutosaveWriterTest {
+
+    @Test public void Bursts_of_save_requests_are_coalesced() throws InterruptedException, ExecutionException {
+        AtomicInteger saveCount = new AtomicInteger();
+        CountDownLatch firstSaveStarted = new CountDownLatch(1);
+        CountDownLatch firstSaveReleased = new CountDownLatch(1);
+        Semaphore finishedSaves = new Semaphore(0);
+        AutosaveWriter writer = new AutosaveWriter(() -> {
+            if (saveCount.incrementAndGet() == 1) {
+                firstSaveStarted.countDown();
+                try {
+                    firstSaveReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            finishedSaves.release();
+        }, 200);
+
+        for (int i = 0; i < 1000; i++) {
+            writer.requestSave();
+        }
+        assertTrue(firstSaveStarted.await(10, TimeUnit.SECONDS));
+
+        // Requests after a save has started schedule another one
+        for (int i = 0; i < 1000; i++) {
+            writer.requestSave();
+        }
+        firstSaveReleased.countDown();
+        assertTrue(finishedSaves.tryAcquire(2, 10, TimeUnit.SECONDS));
+
+        // A flush runs after any save that is already due, so none were left over
+        writer.flush().get();
+        assertEquals(3, saveCount.get());
+        writer.shutdown(() -> {}).get();
+    }
+
+    @Test public void Flush_and_shutdown_complete_after_their_save() throws InterruptedException, ExecutionException {
+        AtomicInteger saveCount = new AtomicInteger();
+        AtomicInteger finalSaveCount = new AtomicInteger();
+        AutosaveWriter writer = new AutosaveWriter(saveCount::incrementAndGet, 60000);
+
+        writer.flush().get();
+        assertEquals(1, saveCount.get());
+
+        writer.requestSave();
+        writer.shutdown(finalSaveCount::incrementAndGet).get();
+        assertEquals(1, finalSaveCount.get());
+        // The pending autosave is superseded by the final save
+        assertEquals(1, saveCount.get());
+
+        // Requests after shutdown are ignored
+        writer.requestSave();
+        writer.flush().get();
+        assertEquals(1, saveCount.get());
+    }
+}
@@ -1,6 +1,7 @@
 package storage;
 
 import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -8,14 +9,22 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import exception.ExceptionHandler;
+import shared.CustomTime;
+import shared.Task;
 
 /**
  *
@@ -36,6 +45,7 @@ public class DiskIOTest {
         //this._storage.writeToDisk();
         File file = new File("tmp/ToDoData.csv");
         file.delete();
+        new File("tmp/ToDoData.csv.bin").delete();
         this._diskIO.setFileName("tmp/ToDoData.csv");
     }
 
@@ -90,6 +100,57 @@ public class DiskIOTest {
         assertEquals(taskStrings, actualTaskList);
     }
 
+    @Test public void Mapped_line_reading_matches_buffered_reading() throws IOException {
+        String taskString1 = "1,r\u00e9sum\u00e9 review,client FGH,2016-03-01T08:00,2016-03-04T10:00,2016-03-04T12:00,true,2";
+        String taskString2 = "2,sales meeting,client IJK,2016-03-02T09:00,2016-03-05T11:30,2016-03-05T13:30,false,2";
+
+        // Windows line endings, and no line ending at the end of the file
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream("tmp/ToDoData.csv"), StandardCharsets.UTF_8));
+        writer.write(taskString1 + "\r\n" + taskString2);
+        writer.close();
+
+        List<String> mappedLines = this._diskIO.mapLinesInParallel(CharSequence::toString);
+
+        assertEquals(2, mappedLines.size());
+        assertEquals(taskString1, mappedLines.get(0));
+        assertEquals(taskString2, mappedLines.get(1));
+        assertEquals(this._diskIO.read(), mappedLines);
+    }
+
+    @Test public void Data_file_and_journal_are_written_as_UTF_8() throws IOException {
+        String taskString = "1,r\u00e9sum\u00e9 review,caf\u00e9 \u6771\u4eac,2016-03-01T08:00,,,false,2";
+        ArrayList<String> taskStrings = new ArrayList<String>();
+        taskStrings.add(taskString);
+
+        this._diskIO.write(taskStrings);
+        this._diskIO.clearJournal();
+        this._diskIO.appendJournal(taskStrings);
+
+        byte[] expected = (taskString + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, Files.readAllBytes(Paths.get("tmp/ToDoData.csv")));
+        assertArrayEquals(expected, Files.readAllBytes(Paths.get(this._diskIO.getJournalFileName())));
+        assertEquals(taskStrings, this._diskIO.read());
+        assertEquals(taskStrings, this._diskIO.readJournal());
+        assertEquals(taskStrings, this._diskIO.mapLinesInParallel(CharSequence::toString));
+        this._diskIO.clearJournal();
+    }
+
+    @Test public void Parallel_line_mapping_preserves_line_order() throws IOException {
+        // Large enough to be split into several chunks
+        ArrayList<String> taskStrings = new ArrayList<String>();
+        for (int i = 1; i <= 20000; i++) {
+            taskStrings.add(i + ",task " + i + ",,2016-03-01T08:00,,,false,2");
+        }
+        this._diskIO.write(taskStrings);
+
+        UserPreferences.getInstance().setStartupParallelism(4);
+        List<String> mappedLines = this._diskIO.mapLinesInParallel(CharSequence::toString);
+        UserPreferences.getInstance().setStartupParallelism(0);
+
+        assertEquals(taskStrings, mappedLines);
+    }
+
     // ----------------------------------------------------------------------------------------
     //
     // II. Write Tests
@@ -114,6 +175,63 @@ public class DiskIOTest {
         reader.close();
     }
 
+    @Test public void Snapshot_replaces_data_file_and_is_read_back() {
+        this._storage.save(new Task(null, "marketing pitch", "client XYZ", (CustomTime) null, null));
+        this._storage.save(new Task(null, "sales meeting", "client ABC", (CustomTime) null, null));
+
+        UserPreferences.getInstance().setDataFormat(UserPreferences.DataFormat.SNAPSHOT);
+        this._storage.writeToDisk();
+        UserPreferences.getInstance().setDataFormat(UserPreferences.DataFormat.CSV);
+        assertTrue(this._diskIO.hasSnapshot());
+        assertFalse(new File("tmp/ToDoData.csv").exists());
+
+        this._storage.removeAll();
+        this._storage.readFromDisk();
+        assertEquals(2, this._storage.getAll().size());
+        assertEquals("sales meeting", this._storage.getAll().get(1).getTaskName());
+
+        // Writing in the CSV format again migrates the data back
+        this._storage.writeToDisk();
+        assertFalse(this._diskIO.hasSnapshot());
+        assertTrue(new File("tmp/ToDoData.csv").exists());
+    }
+
+    @Test public void Unreadable_snapshot_is_set_aside_for_the_data_file() throws IOException {
+        ArrayList<String> taskStrings = new ArrayList<String>();
+        taskStrings.add("1,marketing pitch,client XYZ,2016-03-01T08:00,,,false,2");
+        this._diskIO.write(taskStrings);
+
+        // a snapshot cut short while it was being written
+        Files.write(Paths.get(this._diskIO.getSnapshotFileName()), new byte[] { 0x54, 0x41 });
+        this._storage.removeAll();
+        this._storage.readFromDisk();
+
+        assertEquals(1, this._storage.getAll().size());
+        assertFalse(this._diskIO.hasSnapshot());
+        File unreadableSnapshot = new File(this._diskIO.getSnapshotFileName() + ".unreadable");
+        assertTrue(unreadableSnapshot.exists());
+        unreadableSnapshot.delete();
+    }
+
+    @Test public void Unreadable_data_file_is_set_aside_rather_than_saved_over() throws IOException {
+        ArrayList<String> taskStrings = new ArrayList<String>();
+        taskStrings.add("1,marketing pitch,client XYZ,2016-03-01T08:00,,,false,2");
+        taskStrings.add("garbage,line");
+        this._diskIO.write(taskStrings);
+
+        this._storage.removeAll();
+        this._storage.readFromDisk();
+        assertEquals(0, this._storage.getAll().size());
+
+        this._storage.save(new Task(null, "sales meeting", "client ABC", (CustomTime) null, null));
+        this._storage.writeToDisk();
+
+        File unreadableDataFile = new File("tmp/ToDoData.csv.unreadable");
+        assertEquals(taskStrings, Files.readAllLines(unreadableDataFile.toPath(), StandardCharsets.UTF_8));
+        assertEquals(1, this._diskIO.read().size());
+        unreadableDataFile.delete();
+    }
+
     // ----------------------------------------------------------------------------------------
     //
     // III. User Preferences Tests
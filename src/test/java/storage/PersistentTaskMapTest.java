@@ -0,0 +1,83 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import shared.CustomTime;
+import shared.Task;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @@author A0127357B
+ *
+ */
+public class PersistentTaskMapTest {
+
+    private static Task taskWithId(int id) {
+        return new Task(id, "task " + id, "", (CustomTime) null, null);
+    }
+
+    @Test public void Map_matches_a_TreeMap_after_random_puts() {
+        Random random = new Random(2103);
+        TreeMap<Integer, Task> expected = new TreeMap<>();
+        PersistentTaskMap map = PersistentTaskMap.EMPTY;
+
+        for (int i = 0; i < 5000; i++) {
+            int id = random.nextInt(2000);
+            Task task = taskWithId(id);
+            expected.put(id, task);
+            map = map.put(id, task);
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.lastKey().intValue(), map.lastKey());
+        assertEquals(new ArrayList<>(expected.values()), map.filterValues(task -> true));
+        for (int id = 0; id < 2000; id++) {
+            assertSame(expected.get(id), map.get(id));
+        }
+    }
+
+    @Test public void Iterator_visits_tasks_in_order_of_id() {
+        PersistentTaskMap map = PersistentTaskMap.EMPTY;
+        for (int id : new int[] { 5, 3, 8, 1, 4, 7, 9, 2, 6 }) {
+            map = map.put(id, taskWithId(id));
+        }
+
+        List<Task> visited = new ArrayList<>();
+        Iterator<Task> iterator = map.iterator();
+        while (iterator.hasNext()) {
+            visited.add(iterator.next());
+        }
+
+        assertEquals(map.values(), visited);
+        assertFalse(PersistentTaskMap.EMPTY.iterator().hasNext());
+    }
+
+    @Test public void Earlier_versions_are_unchanged_by_writes() {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            tasks.add(taskWithId(id));
+        }
+        PersistentTaskMap original = PersistentTaskMap.fromSorted(tasks);
+
+        Task replacement = taskWithId(50);
+        PersistentTaskMap updated = original.put(50, replacement).put(101, taskWithId(101));
+
+        assertEquals(100, original.size());
+        assertSame(tasks.get(49), original.get(50));
+        assertNull(original.get(101));
+        assertEquals(tasks, original.filterValues(task -> true));
+
+        assertEquals(101, updated.size());
+        assertSame(replacement, updated.get(50));
+        assertEquals(101, updated.lastKey());
+        assertTrue(PersistentTaskMap.EMPTY.isEmpty());
+    }
+}
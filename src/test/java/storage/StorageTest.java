@@ -3,6 +3,10 @@ package storage;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -122,6 +126,36 @@ public class StorageTest {
         assertEquals(expectedTaskList, this._storage.getAll());
     }
 
+    @Test public void Get_all_in_display_order_follows_saved_changes() {
+        Task task1 = new Task(null, "tutorial", "nm2101", new CustomTime(LocalDateTime.of(2016, 3, 7, 14, 30)),
+                new CustomTime(LocalDateTime.of(2016, 3, 8, 14, 30)));
+        Task task2 = new Task(null, "essay submission", "nm3238", new CustomTime(LocalDateTime.of(2016, 3, 8, 12, 00)),
+                new CustomTime(LocalDateTime.of(2016, 3, 9, 15, 30)));
+        Task task3 = new Task(null, "homework", "cs2103t", new CustomTime(LocalDateTime.of(2016, 3, 9, 10, 00)),
+                new CustomTime(LocalDateTime.of(2016, 3, 9, 12, 00)));
+        this._storage.save(task1);
+        this._storage.save(task2);
+        this._storage.save(task3);
+
+        // completed tasks go last, and stored tasks are changed by saving a modified copy
+        Task completedTask1 = task1.clone();
+        completedTask1.setCompleted(true);
+        this._storage.save(completedTask1);
+        this._storage.remove(task2.getId());
+
+        ArrayList<Task> expectedTaskList = new ArrayList<>();
+        expectedTaskList.add(task3);
+        expectedTaskList.add(task1);
+        List<Task> orderBeforeUndelete = this._storage.getAllInDisplayOrder();
+        assertEquals(expectedTaskList, orderBeforeUndelete);
+
+        this._storage.undelete(task2.getId());
+        // lists handed out earlier keep the order they were taken with
+        assertEquals(expectedTaskList, orderBeforeUndelete);
+        expectedTaskList.add(0, task2);
+        assertEquals(expectedTaskList, this._storage.getAllInDisplayOrder());
+    }
+
     // ----------------------------------------------------------------------------------------
     //
     // IV. Remove Tests
@@ -175,6 +209,31 @@ public class StorageTest {
         this._storage.removeAll();
     }
 
+    @Test public void Unreferenced_deleted_tasks_are_evicted_past_the_limit() {
+        for (int i = 1; i <= 4; i++) {
+            this._storage.save(new Task(null, "task " + i, "", (CustomTime) null, null));
+        }
+        this._storage.remove(1);
+        this._storage.remove(2);
+        this._storage.remove(3);
+        assertEquals(1, this._storage.getLiveTaskCount());
+        assertEquals(3, this._storage.getDeletedTaskCount());
+
+        // within the limit, nothing is evicted
+        assertEquals(0, this._storage.compactTombstones(() -> Collections.singleton(2)));
+
+        UserPreferences.getInstance().setDeletedTaskLimit(0);
+        assertEquals(1, this._storage.compactTombstones(() -> new HashSet<>(Arrays.asList(2, 3))));
+        UserPreferences.getInstance().resetUserPreferences();
+        assertEquals(2, this._storage.getDeletedTaskCount());
+
+        // referenced tasks can still be restored, and evicted IDs are not reused
+        this._storage.undelete(2);
+        assertEquals("task 2", this._storage.get(2).getTaskName());
+        assertEquals(5, this._storage.save(new Task(null, "task 5", "", (CustomTime) null, null)));
+        assertEquals(3, this._storage.getLiveTaskCount());
+    }
+
     // ----------------------------------------------------------------------------------------
     //
     // V. Search by Time Range Tests
@@ -352,4 +411,125 @@ public class StorageTest {
         assertEquals(Task.Priority.NULL, this._storage.get(2).getPriority());
     }
 
-}
\ No newline at end of file
+    // ----------------------------------------------------------------------------------------
+    //
+    // VIII. Journal Tests
+    //
+    // ----------------------------------------------------------------------------------------
+
+    @Test public void Journal_is_replayed_on_top_of_data_file() {
+        DiskIO diskIO = this._storage.getDiskIO();
+        diskIO.setFileName("tmp/ToDoData.csv");
+        diskIO.write(new ArrayList<String>());
+        diskIO.clearJournal();
+        this._storage.removeAll();
+
+        Task task1 = new Task(null, "minor project", "cs1020", new CustomTime(LocalDateTime.of(2016, 3, 7, 14, 30)),
+                new CustomTime(LocalDateTime.of(2016, 3, 8, 14, 30)));
+        Task task2 = new Task(null, "major project", "cs2102", new CustomTime(LocalDateTime.of(2016, 3, 8, 12, 00)),
+                new CustomTime(LocalDateTime.of(2016, 3, 9, 15, 30)));
+        this._storage.save(task1);
+        this._storage.save(task2);
+        this._storage.remove(1);
+        task2.setTaskName("major project v2");
+        this._storage.save(task2);
+
+        // autosave only appends the journal, the data file itself is untouched
+        this._storage.saveChanges();
+        assertTrue(diskIO.read().isEmpty());
+        assertFalse(diskIO.readJournal().isEmpty());
+
+        Storage restoredStorage = new Storage();
+        restoredStorage.readFromDisk();
+        assertEquals(1, restoredStorage.getAll().size());
+        assertEquals("major project v2", restoredStorage.get(2).getTaskName());
+
+        diskIO.clearJournal();
+    }
+
+    @Test public void Failed_journal_append_keeps_the_records_for_the_next_save() {
+        DiskIO diskIO = this._storage.getDiskIO();
+        diskIO.setFileName("tmp/ToDoData.csv");
+        diskIO.write(new ArrayList<String>());
+        diskIO.clearJournal();
+        this._storage.removeAll();
+
+        // a directory in place of the journal cannot be appended to
+        File journal = new File(diskIO.getJournalFileName());
+        assertTrue(journal.mkdir());
+        this._storage.save(new Task(null, "minor project", "cs1020", (CustomTime) null, null));
+        this._storage.saveChanges();
+        assertTrue(journal.delete());
+
+        this._storage.saveChanges();
+        Storage restoredStorage = new Storage();
+        restoredStorage.readFromDisk();
+        assertEquals("minor project", restoredStorage.get(1).getTaskName());
+
+        diskIO.clearJournal();
+    }
+
+    @Test public void Failed_data_file_write_keeps_the_journal() {
+        DiskIO diskIO = this._storage.getDiskIO();
+        diskIO.setFileName("tmp/ToDoData.csv");
+        diskIO.write(new ArrayList<String>());
+        diskIO.clearJournal();
+        this._storage.removeAll();
+
+        this._storage.save(new Task(null, "minor project", "cs1020", (CustomTime) null, null));
+        this._storage.save(new Task(null, "major project", "cs2102", (CustomTime) null, null));
+        this._storage.saveChanges();
+        this._storage.remove(1);
+        this._storage.save(new Task(null, "final project", "cs2103t", (CustomTime) null, null));
+
+        // a directory in place of the temporary file stops the data file being replaced
+        File temporaryFile = new File("tmp/ToDoData.csv.tmp");
+        assertTrue(temporaryFile.mkdir());
+        this._storage.writeToDisk();
+        assertTrue(temporaryFile.delete());
+
+        assertTrue(diskIO.read().isEmpty());
+        Storage restoredStorage = new Storage();
+        restoredStorage.readFromDisk();
+        assertEquals(2, restoredStorage.getAll().size());
+        assertEquals("final project", restoredStorage.get(3).getTaskName());
+
+        // once written, the journal is gone before the tasks are renumbered
+        this._storage.writeToDisk();
+        assertTrue(diskIO.readJournal().isEmpty());
+        restoredStorage = new Storage();
+        restoredStorage.readFromDisk();
+        assertEquals("major project", restoredStorage.get(1).getTaskName());
+        assertEquals("final project", restoredStorage.get(2).getTaskName());
+    }
+
+    @Test public void Multi_line_descriptions_survive_a_save_and_reload() {
+        DiskIO diskIO = this._storage.getDiskIO();
+        diskIO.setFileName("tmp/ToDoData.csv");
+        diskIO.write(new ArrayList<String>());
+        diskIO.clearJournal();
+        this._storage.removeAll();
+
+        // as imported from a quoted CSV value or an iCalendar DESCRIPTION
+        String description = "agenda:\n1. budget, \"final\"\r\n2. hiring";
+        this._storage.save(new Task(null, "planning", description, (CustomTime) null, null));
+        this._storage.save(new Task(null, "review", "one line", (CustomTime) null, null));
+
+        // through the journal
+        this._storage.saveChanges();
+        Storage restoredStorage = new Storage();
+        restoredStorage.readFromDisk();
+        assertEquals(2, restoredStorage.getAll().size());
+        assertEquals(description, restoredStorage.get(1).getDescription());
+        assertEquals("one line", restoredStorage.get(2).getDescription());
+
+        // and through the data file
+        this._storage.writeToDisk();
+        assertEquals(2, diskIO.read().size());
+        restoredStorage = new Storage();
+        restoredStorage.readFromDisk();
+        assertEquals(description, restoredStorage.get(1).getDescription());
+        assertEquals("review", restoredStorage.get(2).getTaskName());
+    }
+
+}
@@ -0,0 +1,113 @@
+package storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import shared.CustomTime;
+import shared.Task;
+
+/**
+ * @@author A0127357B
+ */
+public class TaskExporterTest {
+
+    private static List<Task> buildTasks() {
+        Task meeting = new Task(1, "Meeting, with \"quotes\"", "first line\nsecond line",
+                new CustomTime(2016, Month.APRIL, 1, 9, 0), new CustomTime(2016, Month.APRIL, 1, 10, 0));
+        meeting.setPriority(Task.Priority.HIGH);
+        Task deadline = new Task(2, "Submit report; with a name long enough to need folding in an iCalendar file",
+                "", null, new CustomTime(LocalDate.of(2016, Month.APRIL, 2), null));
+        deadline.setCompleted(true);
+        Task floating = new Task(3, "Floating", "", (CustomTime) null, null);
+        return Arrays.asList(meeting, deadline, floating);
+    }
+
+    private static String export(List<Task> tasks, TaskExporter.Format format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(tasks.size(), TaskExporter.write(tasks.iterator(), format, Channels.newChannel(output)));
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void assertSameTasks(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTaskName(), actual.get(i).getTaskName());
+            assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime());
+            assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime());
+            assertEquals(expected.get(i).getPriority(), actual.get(i).getPriority());
+            assertEquals(expected.get(i).isCompleted(), actual.get(i).isCompleted());
+        }
+    }
+
+    private static void assertLinesFitIcsLimit(String ics) {
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line, line.getBytes(StandardCharsets.UTF_8).length <= 75);
+        }
+    }
+
+    @Test public void Csv_and_ics_exports_are_imported_back_unchanged() throws IOException {
+        List<Task> tasks = buildTasks();
+
+        String csv = export(tasks, TaskExporter.Format.CSV);
+        List<Task> fromCsv = TaskImporter.readCsv(new BufferedReader(new StringReader(csv)));
+        assertSameTasks(tasks, fromCsv);
+        assertEquals("first line\nsecond line", fromCsv.get(0).getDescription());
+
+        String ics = export(tasks, TaskExporter.Format.ICS);
+        assertLinesFitIcsLimit(ics);
+        List<Task> fromIcs = TaskImporter.readIcs(new BufferedReader(new StringReader(ics)));
+        assertSameTasks(tasks, fromIcs);
+        assertEquals("first line\nsecond line", fromIcs.get(0).getDescription());
+    }
+
+    @Test public void Json_export_holds_one_object_per_task() throws IOException {
+        List<Task> tasks = new ArrayList<>(buildTasks());
+
+        JsonArray array = new JsonParser().parse(export(tasks, TaskExporter.Format.JSON)).getAsJsonArray();
+
+        assertEquals(3, array.size());
+        JsonObject meeting = array.get(0).getAsJsonObject();
+        assertEquals(1, meeting.get("id").getAsInt());
+        assertEquals("2016-04-01 09:00", meeting.get("start").getAsString());
+        assertEquals("high", meeting.get("priority").getAsString());
+        assertTrue(array.get(1).getAsJsonObject().get("completed").getAsBoolean());
+        assertTrue(array.get(2).getAsJsonObject().get("end").isJsonNull());
+        assertEquals(TaskExporter.Format.ICS, TaskExporter.Format.ofFileName("archive.ICS"));
+    }
+
+    @Test public void Ics_export_writes_all_day_events_as_calendars_do() throws IOException {
+        CustomTime retreatDay = new CustomTime(LocalDate.of(2016, Month.APRIL, 1), null);
+        Task retreat = new Task(1, "Company retreat", "", retreatDay, retreatDay);
+        Task trip = new Task(2, "\u6771\u4eac\u3078\u306e\u51fa\u5f35\u3001\u4f1a\u8b70\u3068\u5de5\u5834\u898b\u5b66\u3001"
+                + "\u305d\u306e\u5f8c\u306b\u53d6\u5f15\u5148\u3068\u306e\u4f1a\u98df\u3068\u5831\u544a\u66f8\u306e\u4f5c\u6210",
+                "", new CustomTime(LocalDate.of(2016, Month.APRIL, 4), null),
+                new CustomTime(LocalDate.of(2016, Month.APRIL, 6), null));
+        List<Task> tasks = Arrays.asList(retreat, trip);
+
+        String ics = export(tasks, TaskExporter.Format.ICS);
+        // DTEND is the day after the event
+        assertTrue(ics.contains("DTSTART;VALUE=DATE:20160401\r\nDTEND;VALUE=DATE:20160402\r\n"));
+        assertTrue(ics.contains("DTSTART;VALUE=DATE:20160404\r\nDTEND;VALUE=DATE:20160407\r\n"));
+        // the name is 33 characters, but 99 bytes in UTF-8
+        assertLinesFitIcsLimit(ics);
+        assertSameTasks(tasks, TaskImporter.readIcs(new BufferedReader(new StringReader(ics))));
+    }
+}
@@ -0,0 +1,120 @@
+package storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.List;
+
+import org.junit.Test;
+
+import shared.CustomTime;
+import shared.Task;
+
+/**
+ * @@author A0127357B
+ */
+public class TaskImporterTest {
+
+    private static BufferedReader readerOf(String... lines) {
+        return new BufferedReader(new StringReader(String.join("\r\n", lines)));
+    }
+
+    @Test public void Csv_rows_are_read_by_header_with_quoted_values() throws IOException {
+        List<Task> tasks = TaskImporter.readCsv(readerOf(
+                "Priority,Name,Start,End,Description",
+                "high,\"Review, \"\"final\"\" draft\",2016-04-01 08:00,2016-04-01T10:30,\"two",
+                "lines\"",
+                "",
+                ",Submit report,,2016-04-02,"));
+
+        assertEquals(2, tasks.size());
+        Task review = tasks.get(0);
+        assertEquals("Review, \"final\" draft", review.getTaskName());
+        assertEquals("two\nlines", review.getDescription());
+        assertEquals(Task.Priority.HIGH, review.getPriority());
+        assertEquals(new CustomTime(2016, Month.APRIL, 1, 8, 0), review.getStartTime());
+        assertEquals(new CustomTime(2016, Month.APRIL, 1, 10, 30), review.getEndTime());
+
+        Task report = tasks.get(1);
+        assertEquals(null, report.getStartTime());
+        assertEquals(new CustomTime(LocalDate.of(2016, Month.APRIL, 2), null), report.getEndTime());
+        assertEquals(null, report.getId());
+
+        try {
+            TaskImporter.readCsv(readerOf("Pack bags,2016-04-01 08:00"));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Line 1"));
+        }
+    }
+
+    @Test public void Ics_events_and_todos_are_read_with_folded_and_escaped_text() throws IOException {
+        List<Task> tasks = TaskImporter.readIcs(readerOf(
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "SUMMARY:Team sync\\, weekly",
+                "DESCRIPTION:Agenda:\\nupdates and a very long line that is",
+                "  folded",
+                "DTSTART;TZID=Asia/Singapore:20160401T090000",
+                "DTEND;TZID=Asia/Singapore:20160401T100000",
+                "PRIORITY:1",
+                "END:VEVENT",
+                "BEGIN:VTODO",
+                "SUMMARY:File taxes",
+                "DUE;VALUE=DATE:20160430",
+                "STATUS:COMPLETED",
+                "END:VTODO",
+                "BEGIN:VEVENT",
+                "DTSTART:20160402T090000",
+                "END:VEVENT",
+                "END:VCALENDAR"));
+
+        assertEquals(2, tasks.size());
+        Task sync = tasks.get(0);
+        assertEquals("Team sync, weekly", sync.getTaskName());
+        assertEquals("Agenda:\nupdates and a very long line that is folded", sync.getDescription());
+        assertEquals(new CustomTime(2016, Month.APRIL, 1, 9, 0), sync.getStartTime());
+        assertEquals(new CustomTime(LocalDate.of(2016, Month.APRIL, 1), LocalTime.of(10, 0)), sync.getEndTime());
+        assertEquals(Task.Priority.HIGH, sync.getPriority());
+
+        Task taxes = tasks.get(1);
+        assertEquals(null, taxes.getStartTime());
+        assertEquals(new CustomTime(LocalDate.of(2016, Month.APRIL, 30), null), taxes.getEndTime());
+        assertTrue(taxes.isCompleted());
+    }
+
+    @Test public void Ics_all_day_event_ends_on_the_day_before_its_DTEND() throws IOException {
+        // as written by calendar applications, with DTEND on the day after the event
+        List<Task> tasks = TaskImporter.readIcs(readerOf(
+                "BEGIN:VCALENDAR",
+                "VERSION:2.0",
+                "PRODID:-//Google Inc//Google Calendar 70.9054//EN",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20160401",
+                "DTEND;VALUE=DATE:20160402",
+                "DTSTAMP:20160320T101500Z",
+                "UID:0a1b2c3d4e5f@google.com",
+                "SUMMARY:Company retreat",
+                "TRANSP:TRANSPARENT",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20160404",
+                "DTEND;VALUE=DATE:20160407",
+                "SUMMARY:Conference",
+                "END:VEVENT",
+                "END:VCALENDAR"));
+
+        assertEquals(2, tasks.size());
+        CustomTime retreatDay = new CustomTime(LocalDate.of(2016, Month.APRIL, 1), null);
+        assertEquals(retreatDay, tasks.get(0).getStartTime());
+        assertEquals(retreatDay, tasks.get(0).getEndTime());
+        assertEquals(new CustomTime(LocalDate.of(2016, Month.APRIL, 6), null), tasks.get(1).getEndTime());
+    }
+}
@@ -0,0 +1,112 @@
+package storage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.CustomTime;
+import shared.Task;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @@author A0127357B
+ *
+ */
+public class TaskIntervalIndexTest {
+
+    private static final LocalDateTime TIME_BASE = LocalDateTime.of(2016, 4, 1, 8, 0);
+
+    private TaskIntervalIndex _index;
+
+    @Before public void setUp() {
+        this._index = new TaskIntervalIndex();
+    }
+
+    private static CustomTime at(int hours) {
+        return new CustomTime(TIME_BASE.plusHours(hours));
+    }
+
+    private static Task taskBetween(int id, int startHour, int endHour) {
+        return new Task(id, "task " + id, "", at(startHour), at(endHour));
+    }
+
+    private static List<Integer> idsOf(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    @Test public void Overlap_query_excludes_touching_and_partial_tasks() {
+        this._index.put(taskBetween(1, 0, 2));
+        this._index.put(taskBetween(2, 2, 4));
+        this._index.put(taskBetween(3, 3, 6));
+        this._index.put(new Task(4, "no end", "", at(1), null));
+
+        List<Integer> expectedIds = new ArrayList<>();
+        expectedIds.add(2);
+        expectedIds.add(3);
+
+        assertEquals(expectedIds, idsOf(this._index.findOverlapping(at(2), at(5))));
+        assertTrue(this._index.hasOverlapping(at(2), at(5)));
+        assertFalse(this._index.hasOverlapping(at(6), at(8)));
+        assertEquals(3, this._index.size());
+    }
+
+    @Test public void Putting_a_modified_task_moves_it_in_the_index() {
+        Task task = taskBetween(1, 0, 2);
+        this._index.put(task);
+
+        task.setStartTime(at(10));
+        task.setEndTime(at(12));
+        this._index.put(task);
+
+        assertFalse(this._index.hasOverlapping(at(0), at(2)));
+        assertTrue(this._index.hasOverlapping(at(11), at(13)));
+        assertEquals(at(12), this._index.getLatestEndTime().get());
+
+        this._index.remove(1);
+        assertFalse(this._index.getLatestEndTime().isPresent());
+    }
+
+    @Test public void Queries_match_linear_scan() {
+        Random random = new Random(2103);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            int start = random.nextInt(1000);
+            Task task = taskBetween(id, start, start + 1 + random.nextInt(50));
+            tasks.add(task);
+            this._index.put(task);
+        }
+        // Remove some, so that deletions are exercised as well
+        for (int id = 1; id <= 500; id += 7) {
+            this._index.remove(id);
+        }
+        List<Task> liveTasks = tasks.stream().filter(task -> (task.getId() - 1) % 7 != 0).collect(Collectors.toList());
+
+        for (int i = 0; i < 200; i++) {
+            CustomTime start = at(random.nextInt(1000));
+            CustomTime end = at(random.nextInt(1100));
+
+            List<Integer> expectedOverlapping = idsOf(liveTasks.stream()
+                    .filter(task -> task.getEndTime().compareTo(start) > 0 && task.getStartTime().compareTo(end) < 0)
+                    .collect(Collectors.toList()));
+            List<Integer> expectedWithin = idsOf(liveTasks.stream()
+                    .filter(task -> task.getStartTime().compareTo(start) >= 0 && task.getEndTime().compareTo(end) <= 0)
+                    .collect(Collectors.toList()));
+
+            List<Integer> actualOverlapping = idsOf(this._index.findOverlapping(start, end));
+            List<Integer> actualWithin = idsOf(this._index.findWithin(start, end));
+
+            assertEquals(expectedOverlapping.size(), actualOverlapping.size());
+            assertTrue(actualOverlapping.containsAll(expectedOverlapping));
+            assertEquals(!expectedOverlapping.isEmpty(), this._index.hasOverlapping(start, end));
+            assertEquals(expectedWithin.size(), actualWithin.size());
+            assertTrue(actualWithin.containsAll(expectedWithin));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.CustomTime;
+import shared.Task;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @@author A0127357B
+ *
+ */
+public class TaskNameIndexTest {
+
+    private TaskNameIndex _index;
+
+    @Before public void setUp() {
+        this._index = new TaskNameIndex();
+    }
+
+    private void put(int id, String name) {
+        this._index.put(new Task(id, name, "", (CustomTime) null, null));
+    }
+
+    @Test public void Candidates_contain_subsequence_matches_only() {
+        this.put(1, "Marketing pitch");
+        this.put(2, "sales meeting");
+        this.put(3, "team lunch");
+
+        BitSet candidates = this._index.findCandidates(new String[] { "mtg" });
+        assertTrue(candidates.get(1));
+        assertTrue(candidates.get(2));
+        assertFalse(candidates.get(3));
+
+        // Renamed tasks are reindexed
+        this.put(3, "team meeting");
+        assertTrue(this._index.findCandidates(new String[] { "mtg" }).get(3));
+        this._index.remove(2);
+        assertFalse(this._index.findCandidates(new String[] { "mtg" }).get(2));
+    }
+
+    @Test public void Queries_with_other_characters_are_not_narrowed() {
+        this.put(1, "e-mail boss");
+
+        assertNull(this._index.findCandidates(new String[] { "e-m" }));
+        assertNull(this._index.findCandidates(new String[] { "", "boss" }));
+    }
+
+    @Test public void Candidates_are_a_superset_of_PowerSearch_matches() {
+        Random random = new Random(2103);
+        String alphabet = "abcdeM1_ ";
+        List<String> names = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            StringBuilder name = new StringBuilder();
+            for (int i = random.nextInt(12); i >= 0; i--) {
+                name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            names.add(name.toString());
+            this.put(id, name.toString());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = random.nextInt(3); j >= 0; j--) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length() - 1)));
+            }
+
+            // Same shape as the pattern built by DecisionEngine
+            StringBuilder patternBuilder = new StringBuilder("\\b(?<MATCH>");
+            for (int j = 0; j < word.length(); j++) {
+                patternBuilder.append("\\w*").append(word.charAt(j));
+            }
+            Pattern pattern = Pattern.compile(patternBuilder.append("\\w*)\\b").toString(), Pattern.CASE_INSENSITIVE);
+
+            BitSet candidates = this._index.findCandidates(new String[] { word.toString() });
+            for (int id = 1; id <= names.size(); id++) {
+                if (pattern.matcher(names.get(id - 1)).find()) {
+                    assertTrue(word + " in " + names.get(id - 1), candidates.get(id));
+                }
+            }
+        }
+    }
+}
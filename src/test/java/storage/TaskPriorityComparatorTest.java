@@ -1,7 +1,9 @@
 package storage;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -189,4 +191,26 @@ public class TaskPriorityComparatorTest {
 
     }
 
+    @Test public void Ordering_follows_changes_made_through_setters() {
+        CustomTime earlierStartTime = new CustomTime(LocalDateTime.of(2016, 3, 2, 11, 59));
+        CustomTime laterStartTime = new CustomTime(LocalDate.of(2016, 3, 2), null);
+
+        Task earlierTask = new Task(null, "report submission", null, earlierStartTime, null);
+        Task laterTask = new Task(null, "sales team meeting", null, laterStartTime, null);
+        Task untimedTask = new Task(null, "submit v0.1", null, (CustomTime) null, null);
+        TaskPriorityComparator comparator = TaskPriorityComparator.getInstance();
+
+        // a date without a time comes after any time on that date, and a missing start comes last
+        assertTrue(comparator.compare(earlierTask, laterTask) < 0);
+        assertTrue(comparator.compare(laterTask, untimedTask) < 0);
+
+        // completed tasks come after incomplete ones
+        earlierTask.setCompleted(true);
+        assertTrue(comparator.compare(untimedTask, earlierTask) < 0);
+
+        earlierTask.setCompleted(false);
+        earlierTask.setStartTime(null);
+        untimedTask.setPriority(Priority.HIGH);
+        assertTrue(comparator.compare(untimedTask, earlierTask) < 0);
+    }
 }
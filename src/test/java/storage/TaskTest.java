@@ -1,13 +1,19 @@
 package storage;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
 import shared.CustomTime;
 import shared.Task;
+import shared.TaskSnapshotCodec;
 
 import static org.junit.Assert.*;
 
@@ -95,6 +101,20 @@ public class TaskTest {
         assertEquals(Task.Priority.MEDIUM, task3.getPriority());
     }
 
+    @Test public void Task_with_line_breaks_is_encoded_on_one_line() {
+        String description = "line 1\nline 2\r\nliteral \\n, and a trailing backslash\\";
+        Task task = new Task(7, "multi-line", description, (CustomTime) null, null);
+
+        String taskString = task.encodeTaskToString();
+        assertFalse(taskString.contains("\n"));
+        assertFalse(taskString.contains("\r"));
+
+        Task decodedTask = Task.decodeTaskFromString(taskString);
+        assertEquals("multi-line", decodedTask.getTaskName());
+        assertEquals(description, decodedTask.getDescription());
+        assertEquals(task.getCreationTime(), decodedTask.getCreationTime());
+    }
+
     @Test public void Decoded_Task_has_correct_attributes_assigned() {
         String taskString = "88,marketing pitch,to microsoft,2016-03-02T23:59:01,2016-03-09T14:30,2016-03-09T15:30,true,2";
         Task task4 = Task.decodeTaskFromString(taskString);
@@ -129,4 +149,33 @@ public class TaskTest {
 
     }
 
-}
\ No newline at end of file
+    // ----------------------------------------------------------------------------------------
+    //
+    // IV. Snapshot Tests
+    //
+    // ----------------------------------------------------------------------------------------
+
+    @Test public void Snapshot_round_trips_like_the_csv_format() throws IOException {
+        Task timed = new Task(1, "pitch, to \"client\"", "caf\u00e9 \u4f1a\u8bae", new CustomTime(LocalDateTime.of(2016, 3, 9, 23, 59)),
+                new CustomTime(LocalDateTime.of(2016, 3, 11, 12, 0)));
+        timed.setCompleted(true);
+        timed.setPriority(Task.Priority.HIGH);
+        Task floating = new Task(2, "read", "", (CustomTime) null, null);
+        Task partial = new Task(7, "gym", "", new CustomTime(LocalDate.of(2016, 4, 1), null),
+                new CustomTime(null, LocalTime.of(18, 30)));
+        partial.setPriority(Task.Priority.LOW);
+        List<Task> tasks = Arrays.asList(timed, floating, partial);
+
+        List<Task> decoded = TaskSnapshotCodec.decode(TaskSnapshotCodec.encode(tasks));
+
+        assertEquals(tasks.size(), decoded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).encodeTaskToString(), decoded.get(i).encodeTaskToString());
+        }
+    }
+
+    @Test(expected = IOException.class) public void Snapshot_decoding_rejects_other_files() throws IOException {
+        ByteBuffer csv = ByteBuffer.wrap("1,proposal,,2016-03-01T08:00,,,false,2".getBytes(StandardCharsets.UTF_8));
+        TaskSnapshotCodec.decode(csv);
+    }
+}
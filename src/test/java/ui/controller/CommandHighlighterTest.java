@@ -0,0 +1,69 @@
+package ui.controller;
+
+import org.fxmisc.richtext.StyleSpan;
+import org.fxmisc.richtext.StyleSpans;
+import org.junit.Before;
+import org.junit.Test;
+
+import logic.CommandParser;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @@author A0127046L
+ */
+public class CommandHighlighterTest {
+
+    private CommandParser _parser;
+
+    @Before
+    public void setUp() {
+        this._parser = CommandParser.getInstance();
+        this._parser.initialise();
+    }
+
+    private StyleSpans<Collection<String>> highlightFresh(String text) {
+        return new CommandHighlighter(this._parser).computeHighlighting(text);
+    }
+
+    @Test
+    public void Typing_a_command_gives_the_same_highlighting_as_starting_afresh() {
+        CommandHighlighter highlighter = new CommandHighlighter(this._parser);
+        String command = "add lunch with \"the team from monday\" from tomorrow 12pm to friday 3pm with high priority";
+        for (int i = 0; i <= command.length(); i++) {
+            String text = command.substring(0, i);
+            assertEquals(text, highlightFresh(text), highlighter.computeHighlighting(text));
+        }
+
+        // Edits in the middle, including ones that move text in and out of quotes
+        String[] edits = {
+                "add lunch with \"the team from monday\" from tomorrow 12pm to saturday 3pm with high priority",
+                "add lunch with the team from monday\" from tomorrow 12pm to saturday 3pm with high priority",
+                "add lunch with the team from monday from tomorrow 12pm to saturday 3pm with high priority",
+                "edit lunch with the team from monday from tomorrow 12pm to saturday 3pm with high priority",
+                "edit lunch with the team from monday from tomorrow 12pm to saturday 3pm",
+        };
+        for (String text : edits) {
+            assertEquals(text, highlightFresh(text), highlighter.computeHighlighting(text));
+        }
+    }
+
+    @Test
+    public void Typing_at_the_end_reuses_the_keywords_before() {
+        CommandHighlighter highlighter = new CommandHighlighter(this._parser);
+        highlighter.computeHighlighting("add meeting from monday 3pm to tuesday 5pm and more words");
+        long matchedBefore = highlighter.getMatchedStageCount();
+
+        StyleSpans<Collection<String>> highlighting =
+                highlighter.computeHighlighting("add meeting from monday 3pm to tuesday 5pm and more words!");
+
+        // Only the priority, which has not been found, is matched again
+        assertEquals(1, highlighter.getMatchedStageCount() - matchedBefore);
+        assertTrue(highlighting.getStyleSpan(0).equals(
+                new StyleSpan<>(Collections.singleton("command__instruction"), 3)));
+    }
+}